@@ -0,0 +1,79 @@
+package com.data.warehouse.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic deal CSVs for the benchmarks: about 2% of the rows carry an unknown currency and
+ * about 1% repeat an earlier dealId, so every import path does some rejecting.
+ */
+final class BenchmarkData {
+
+    static final String HEADER = "dealId,fromCurrency,toCurrency,timestamp,amount\n";
+
+    private static final String[] CURRENCIES = {"USD", "EUR", "JPY", "GBP", "AUD", "CAD", "CHF", "NZD", "SEK", "NOK"};
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final Path DATA_DIR = Path.of("target", "bench-data");
+
+    private BenchmarkData() {
+    }
+
+    static byte[] csv(int rows) {
+        return csv(rows, "D");
+    }
+
+    /**
+     * Same rows with dealIds starting with {@code idPrefix}, so files with different prefixes never collide.
+     */
+    static byte[] csv(int rows, String idPrefix) {
+        StringWriter out = new StringWriter(rows * 48);
+        write(out, rows, idPrefix);
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Generated once per row count under {@code target/bench-data} and reused by later runs.
+     */
+    static Path csvFile(int rows) throws IOException {
+        Path file = DATA_DIR.resolve("deals-" + rows + ".csv");
+        if (Files.exists(file)) {
+            return file;
+        }
+        Files.createDirectories(DATA_DIR);
+        Path partial = Files.createTempFile(DATA_DIR, "deals-", ".part");
+        try (BufferedWriter out = Files.newBufferedWriter(partial, StandardCharsets.UTF_8)) {
+            write(out, rows);
+        }
+        return Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void write(Writer out, int rows) {
+        write(out, rows, "D");
+    }
+
+    private static void write(Writer out, int rows, String idPrefix) {
+        SplittableRandom random = new SplittableRandom(42);
+        try {
+            out.write(HEADER);
+            for (int i = 0; i < rows; i++) {
+                int id = i > 0 && random.nextInt(100) == 0 ? random.nextInt(i) : i;
+                String from = CURRENCIES[random.nextInt(CURRENCIES.length)];
+                String to = random.nextInt(50) == 0 ? "ZZZ" : CURRENCIES[random.nextInt(CURRENCIES.length)];
+                out.write(idPrefix + id + "," + from + "," + to + ","
+                        + START.plusSeconds(i) + ","
+                        + (1 + random.nextInt(1_000_000)) + "." + (10 + random.nextInt(90)) + "\n");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.data.warehouse.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH entry point used by {@code make bench}. Takes the usual JMH command line and, unless told
+ * otherwise, adds the GC profiler (allocation rate per op) and writes JSON results to
+ * {@code target/jmh-result.json} so runs can be compared.
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+
+        if (commandLine.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            options.result("target/jmh-result.json").resultFormat(ResultFormatType.JSON);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,132 @@
+package com.data.warehouse.benchmark;
+
+import com.data.warehouse.dto.DealsDto;
+import com.data.warehouse.models.Deal;
+import com.data.warehouse.parser.DealColumns;
+import com.data.warehouse.parser.DealRowParser;
+import com.data.warehouse.parser.RowChunk;
+import com.data.warehouse.parser.RowChunkReader;
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.bean.CsvToBeanBuilder;
+import com.opencsv.bean.HeaderColumnNameMappingStrategyBuilder;
+import com.opencsv.bean.MappingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binding CSV rows to {@link DealsDto}, per row: OpenCSV's {@code CsvToBean} iterator, and the
+ * {@code CSVReader} + mapping strategy split used by the generic import path. The next two benchmarks
+ * compare bytes-to-{@link Deal} for the generic path and the fixed-layout {@link DealRowParser};
+ * {@code fixedLayoutColumns} stops at the {@link DealColumns} the import works on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParsingBenchmark {
+
+    static final int ROWS = 10_000;
+
+    private byte[] csv;
+
+    @Setup
+    public void setUp() {
+        csv = BenchmarkData.csv(ROWS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void csvToBean(Blackhole blackhole) {
+        Iterator<DealsDto> rows = new CsvToBeanBuilder<DealsDto>(reader())
+                .withType(DealsDto.class)
+                .withIgnoreLeadingWhiteSpace(true)
+                .build()
+                .iterator();
+        while (rows.hasNext()) {
+            blackhole.consume(rows.next());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void csvReaderWithMappingStrategy(Blackhole blackhole) throws Exception {
+        CSVReader csvReader = new CSVReaderBuilder(reader())
+                .withCSVParser(new CSVParserBuilder().withIgnoreLeadingWhiteSpace(true).build())
+                .build();
+        MappingStrategy<DealsDto> mappingStrategy = new HeaderColumnNameMappingStrategyBuilder<DealsDto>().build();
+        mappingStrategy.setType(DealsDto.class);
+        mappingStrategy.captureHeader(csvReader);
+
+        String[] line;
+        while ((line = csvReader.readNext()) != null) {
+            blackhole.consume(mappingStrategy.populateNewBean(line));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void csvReaderToEntity(Blackhole blackhole) throws Exception {
+        CSVReader csvReader = new CSVReaderBuilder(reader())
+                .withCSVParser(new CSVParserBuilder().withIgnoreLeadingWhiteSpace(true).build())
+                .build();
+        MappingStrategy<DealsDto> mappingStrategy = new HeaderColumnNameMappingStrategyBuilder<DealsDto>().build();
+        mappingStrategy.setType(DealsDto.class);
+        mappingStrategy.captureHeader(csvReader);
+
+        String[] line;
+        while ((line = csvReader.readNext()) != null) {
+            blackhole.consume(Deal.toEntity(mappingStrategy.populateNewBean(line)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void fixedLayoutParser(Blackhole blackhole) throws Exception {
+        RowChunkReader rowReader = new RowChunkReader(new ByteArrayInputStream(csv), 1000);
+        rowReader.readHeader();
+
+        RowChunk chunk;
+        while ((chunk = rowReader.next()) != null) {
+            for (Deal deal : DealRowParser.parse(chunk)) {
+                blackhole.consume(deal);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void fixedLayoutColumns(Blackhole blackhole) throws Exception {
+        RowChunkReader rowReader = new RowChunkReader(new ByteArrayInputStream(csv), 1000);
+        rowReader.readHeader();
+
+        RowChunk chunk;
+        while ((chunk = rowReader.next()) != null) {
+            blackhole.consume(DealRowParser.parseColumns(chunk));
+        }
+    }
+
+    private Reader reader() {
+        return new InputStreamReader(new ByteArrayInputStream(csv), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,82 @@
+package com.data.warehouse.benchmark;
+
+import com.data.warehouse.utils.CurrencyUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Currency;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the bitset lookup in {@link CurrencyUtil} with the previous
+ * {@code toUpperCase()} + {@code Currency.getInstance} check on a mix of valid and invalid codes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurrencyUtilBenchmark {
+
+    private static final String[] VALID = {"USD", "EUR", "JPY", "GBP", "chf", "cad"};
+
+    @Param({"0.1", "0.9"})
+    private double invalidRatio;
+
+    private CurrencyUtil currencyUtil;
+    private String[] codes;
+
+    @Setup
+    public void setUp() {
+        currencyUtil = new CurrencyUtil(CurrencyUtil.Source.ISO);
+        Random random = new Random(42);
+        codes = new String[1024];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = random.nextDouble() < invalidRatio
+                    ? "Q" + (char) ('A' + random.nextInt(26)) + (char) ('A' + random.nextInt(26))
+                    : VALID[random.nextInt(VALID.length)];
+        }
+    }
+
+    @Benchmark
+    public int bitsetLookup() {
+        int valid = 0;
+        for (String code : codes) {
+            if (currencyUtil.isValid(code)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int exceptionLookup() {
+        int valid = 0;
+        for (String code : codes) {
+            if (code.length() == 3 && isIsoCurrency(code)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    private static boolean isIsoCurrency(String code) {
+        try {
+            Currency.getInstance(code.toUpperCase());
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
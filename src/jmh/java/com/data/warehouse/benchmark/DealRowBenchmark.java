@@ -0,0 +1,105 @@
+package com.data.warehouse.benchmark;
+
+import com.data.warehouse.config.MessageResolver;
+import com.data.warehouse.dto.DealsDto;
+import com.data.warehouse.models.Deal;
+import com.data.warehouse.parser.DealColumns;
+import com.data.warehouse.utils.CurrencyUtil;
+import com.data.warehouse.validator.DealValidator;
+import com.opencsv.bean.CsvToBeanBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row cost of {@link Deal#toEntity(DealsDto)} and {@link DealValidator} on already bound rows.
+ * {@code validateWithChunkClock} reads the clock once per chunk instead of once per row, and {@code validateColumns}
+ * checks the same rows held as {@link DealColumns}, as the import does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DealRowBenchmark {
+
+    static final int ROWS = 10_000;
+
+    private DealsDto[] dtos;
+    private Deal[] deals;
+    private DealColumns columns;
+    private DealValidator validator;
+
+    @Setup
+    public void setUp() {
+        List<DealsDto> parsed = new CsvToBeanBuilder<DealsDto>(new InputStreamReader(
+                new ByteArrayInputStream(BenchmarkData.csv(ROWS)), StandardCharsets.UTF_8))
+                .withType(DealsDto.class)
+                .build()
+                .parse();
+        dtos = parsed.toArray(new DealsDto[0]);
+        deals = parsed.stream().map(Deal::toEntity).toArray(Deal[]::new);
+        columns = DealColumns.of(List.of(deals));
+
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages");
+        validator = new DealValidator(new MessageResolver(messageSource), new CurrencyUtil(CurrencyUtil.Source.FILE));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void toEntity(Blackhole blackhole) {
+        for (DealsDto dto : dtos) {
+            blackhole.consume(Deal.toEntity(dto));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void validate(Blackhole blackhole) {
+        for (Deal deal : deals) {
+            blackhole.consume(validator.check(deal));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void validateWithChunkClock(Blackhole blackhole) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Deal deal : deals) {
+            blackhole.consume(validator.check(deal, now));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void validateColumns(Blackhole blackhole) {
+        blackhole.consume(validator.check(columns, LocalDateTime.now()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void toEntityAndValidate(Blackhole blackhole) {
+        for (DealsDto dto : dtos) {
+            blackhole.consume(validator.check(Deal.toEntity(dto)));
+        }
+    }
+}
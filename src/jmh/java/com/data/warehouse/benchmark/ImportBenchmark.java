@@ -0,0 +1,94 @@
+package com.data.warehouse.benchmark;
+
+import com.data.warehouse.WarehouseApplication;
+import com.data.warehouse.dto.ImportLoader;
+import com.data.warehouse.dto.ResultsDto;
+import com.data.warehouse.services.DealService;
+import com.data.warehouse.services.ImportContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link DealService} import of a generated file into PostgreSQL, one file per
+ * iteration on emptied {@code deals}, {@code deal_ids} and {@code deal_rollups} tables. Needs a database at {@code jdbcUrl}; the
+ * docker-compose {@code db} service matches the default. Rows per second is {@code rows} over
+ * the reported time; {@code loader} compares batched inserts with {@code COPY}, and {@code profile} the default
+ * configuration with the {@code bulk-import} profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ImportBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private int rows;
+
+    @Param({"INSERT", "COPY"})
+    private ImportLoader loader;
+
+    @Param({"default", "bulk-import"})
+    private String profile;
+
+    @Param("jdbc:postgresql://localhost:5432/dealsdb")
+    private String jdbcUrl;
+
+    private ConfigurableApplicationContext context;
+    private DealService dealService;
+    private JdbcTemplate jdbcTemplate;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws IOException {
+        file = BenchmarkData.csvFile(rows);
+        context = new SpringApplicationBuilder(WarehouseApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(profile)
+                .properties(
+                        "spring.datasource.url=" + jdbcUrl,
+                        "logging.level.root=WARN")
+                .run();
+        dealService = context.getBean(DealService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyTable() {
+        jdbcTemplate.execute("TRUNCATE TABLE deals, deal_ids, deal_rollups");
+    }
+
+    @Benchmark
+    public ResultsDto importFile() throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return dealService.importStream(in, ImportContext.builder().loader(loader).build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+}
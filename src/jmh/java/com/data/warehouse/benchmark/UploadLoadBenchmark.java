@@ -0,0 +1,149 @@
+package com.data.warehouse.benchmark;
+
+import com.data.warehouse.WarehouseApplication;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of {@code uploads} small files posted to {@code /api/import} at once, against the application
+ * started in each upload {@code mode}: {@code blocking} and {@code async} as configured by
+ * {@code warehouse.import.uploads.mode}, and {@code virtual} with the {@code virtual-threads} profile, which
+ * needs the benchmark to run on Java 21 or later; on older runtimes the application does not start in that mode. Files per second is {@code uploads} over the
+ * reported time; the {@code ok} and {@code rejected} counters show how many uploads were imported or turned
+ * away with 503. Needs a database at {@code jdbcUrl}, like {@link ImportBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UploadLoadBenchmark {
+
+    private static final String BOUNDARY = "----deal-upload-benchmark";
+
+    @Param({"blocking", "async", "virtual"})
+    private String mode;
+
+    @Param({"50", "500"})
+    private int uploads;
+
+    @Param("100")
+    private int rows;
+
+    @Param("jdbc:postgresql://localhost:5432/dealsdb")
+    private String jdbcUrl;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private HttpClient client;
+    private URI importUri;
+    private List<byte[]> bodies;
+    private int iteration;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long ok;
+        public long rejected;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            ok = 0;
+            rejected = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        SpringApplicationBuilder application = new SpringApplicationBuilder(WarehouseApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=" + jdbcUrl,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "warehouse.import.uploads.mode=" + ("async".equals(mode) ? "async" : "blocking"));
+        if ("virtual".equals(mode)) {
+            application.profiles("virtual-threads");
+        }
+        context = application.run();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        importUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/import");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(30)).build();
+    }
+
+    @Setup(Level.Iteration)
+    public void prepareBurst() {
+        jdbcTemplate.execute("TRUNCATE TABLE deals, deal_ids, deal_rollups");
+        iteration++;
+        bodies = new ArrayList<>(uploads);
+        for (int i = 0; i < uploads; i++) {
+            bodies.add(multipart(BenchmarkData.csv(rows, "U" + iteration + "-" + i + "-")));
+        }
+    }
+
+    @Benchmark
+    public void burst(Outcomes outcomes) {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(uploads);
+        for (byte[] body : bodies) {
+            HttpRequest request = HttpRequest.newBuilder(importUri)
+                    .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                    .timeout(Duration.ofMinutes(5))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            int status = response.join().statusCode();
+            if (status == 200) {
+                outcomes.ok++;
+            } else if (status == 503) {
+                outcomes.rejected++;
+            } else {
+                throw new IllegalStateException("Upload failed with status " + status);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    private static byte[] multipart(byte[] csv) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(csv.length + 256);
+        body.writeBytes(("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"feed.csv\"\r\n"
+                + "Content-Type: text/csv\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        body.writeBytes(csv);
+        body.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        return body.toByteArray();
+    }
+}
@@ -0,0 +1,63 @@
+package com.data.warehouse.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Connections of the import write path: the chunk transactions and everything written in them, that is deals,
+ * rollups and job checkpoints. They come from the application's pool unless {@code warehouse.import.datasource.enabled}
+ * is set, as in the {@code bulk-import} profile. Imports then get a Hikari pool and transaction manager of their own,
+ * configured by {@code warehouse.import.datasource.hikari.*} on top of {@code spring.datasource.*}, so a burst of
+ * imports cannot take the connections queries and exports need.
+ * <p>
+ * Not exposed as a {@code DataSource} bean, which would replace the auto-configured one.
+ */
+@Slf4j
+@Component
+public class ImportDatabase implements DisposableBean {
+
+    private static final String HIKARI = "warehouse.import.datasource.hikari";
+
+    @Getter
+    private final JdbcTemplate jdbcTemplate;
+
+    @Getter
+    private final TransactionTemplate transactionTemplate;
+
+    private final HikariDataSource ownPool;
+
+    public ImportDatabase(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                          DataSourceProperties dataSourceProperties, ImportProperties importProperties,
+                          Environment environment) {
+        if (importProperties.getDatasource().isEnabled()) {
+            ownPool = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            ownPool.setPoolName("deal-import");
+            Binder.get(environment).bind(HIKARI, Bindable.ofInstance(ownPool));
+            log.info("Imports write through their own pool '{}' of up to {} connections.",
+                    ownPool.getPoolName(), ownPool.getMaximumPoolSize());
+            this.jdbcTemplate = new JdbcTemplate(ownPool);
+            this.transactionTemplate = new TransactionTemplate(new JdbcTransactionManager(ownPool));
+        } else {
+            ownPool = null;
+            this.jdbcTemplate = jdbcTemplate;
+            this.transactionTemplate = transactionTemplate;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (ownPool != null) {
+            ownPool.close();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.data.warehouse.config;
+
+import com.data.warehouse.dto.ImportLoader;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "warehouse.import")
+public class ImportProperties {
+
+    /**
+     * Number of CSV rows parsed, validated and persisted together.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Number of rows sent to the database in one multi-row insert.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Worker threads parsing and validating chunks; the number of available processors when 0.
+     */
+    private int parallelism = 0;
+
+    /**
+     * Chunks read ahead of the writer per import before the reader blocks.
+     */
+    private int queueDepth = 4;
+
+    /**
+     * Rejected rows listed individually in the response; the rest are only counted.
+     */
+    private int maxErrorDetails = 1000;
+
+    /**
+     * Whether every committed chunk also updates {@code deal_rollups}; rebuild the rollups after importing with this off.
+     */
+    private boolean updateRollups = true;
+
+    /**
+     * Loader of imports that do not pick one themselves.
+     */
+    private ImportLoader loader = ImportLoader.INSERT;
+
+    private Uploads uploads = new Uploads();
+
+    private Batch batch = new Batch();
+
+    private Jobs jobs = new Jobs();
+
+    private Local local = new Local();
+
+    private IdFilter idFilter = new IdFilter();
+
+    private Partitions partitions = new Partitions();
+
+    private Datasource datasource = new Datasource();
+
+    @Data
+    public static class Uploads {
+
+        public enum Mode {
+            /**
+             * The import runs on the request thread, which also waits for a slot; only suited to virtual threads
+             * or to {@code concurrency + queue-capacity} well below {@code server.tomcat.threads.max}.
+             */
+            BLOCKING,
+            /**
+             * The request thread is released and the import runs on a pool of {@code concurrency} threads.
+             */
+            ASYNC
+        }
+
+        private Mode mode = Mode.ASYNC;
+
+        /**
+         * Direct uploads imported at the same time; keep it below the connection pool size.
+         */
+        private int concurrency = 8;
+
+        /**
+         * Uploads waiting for a free slot before further ones are rejected with 503.
+         */
+        private int queueCapacity = 500;
+
+        /**
+         * How long a {@code BLOCKING} upload waits for a free slot before it is rejected with 503.
+         */
+        private Duration queueTimeout = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Batch {
+
+        /**
+         * Files of batch uploads imported at the same time, over all batches.
+         */
+        private int parallelism = 4;
+
+        /**
+         * Most files, archive entries included, one batch may hold.
+         */
+        private int maxFiles = 200;
+    }
+
+    @Data
+    public static class Jobs {
+
+        /**
+         * Imports running at the same time; further jobs wait in the queue.
+         */
+        private int workers = 2;
+
+        /**
+         * Jobs accepted while all workers are busy before uploads are rejected.
+         */
+        private int queueCapacity = 20;
+
+        /**
+         * Upper bound on jobs kept in the registry, finished ones included.
+         */
+        private int maxJobs = 1000;
+
+        /**
+         * How long a finished job stays available for polling.
+         */
+        private Duration retention = Duration.ofHours(1);
+
+        /**
+         * Directory uploads and batch archives are spooled to while they are imported; the system temp dir when unset.
+         */
+        private String spoolDir;
+
+        /**
+         * Whether jobs write every rejected row to a report file next to the spooled upload.
+         */
+        private boolean errorReports = true;
+    }
+
+    @Data
+    public static class Local {
+
+        /**
+         * Directory server-side files may be imported from; local imports are disabled when unset.
+         */
+        private String baseDir;
+
+        private Watch watch = new Watch();
+    }
+
+    @Data
+    public static class Watch {
+
+        /**
+         * Whether files dropped into {@code dir} are imported automatically.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Watched directory, relative to the base dir.
+         */
+        private String dir = "incoming";
+
+        /**
+         * Where successfully imported files are moved, relative to the base dir.
+         */
+        private String processedDir = "processed";
+
+        /**
+         * Where files whose import failed are moved, relative to the base dir.
+         */
+        private String failedDir = "failed";
+
+        /**
+         * How often the directory is rescanned, and how long a file must stay unmodified before it is picked up.
+         */
+        private Duration pollInterval = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class IdFilter {
+
+        /**
+         * Whether dealIds are checked against an in-memory Bloom filter before the database lookup.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of dealIds the filter is sized for; past it the false-positive rate climbs.
+         */
+        private long expectedIds = 10_000_000;
+
+        /**
+         * False-positive rate at {@code expectedIds}; 10M ids at 1% take about 12 MB.
+         */
+        private double falsePositiveRate = 0.01;
+    }
+
+    @Data
+    public static class Partitions {
+
+        /**
+         * Whether monthly partitions of {@code deals} are created by the application.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Months after the current one whose partitions are kept created in advance.
+         */
+        private int monthsAhead = 3;
+    }
+
+    @Data
+    public static class Datasource {
+
+        /**
+         * Whether imports write through a pool of their own, configured under {@code hikari}; see {@code ImportDatabase}.
+         */
+        private boolean enabled = false;
+    }
+}
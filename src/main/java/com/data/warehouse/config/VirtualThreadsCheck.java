@@ -0,0 +1,24 @@
+package com.data.warehouse.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fails startup when virtual threads are asked for, as by the {@code virtual-threads} profile, on a runtime
+ * without them. Spring Boot ignores {@code spring.threads.virtual.enabled} before Java 21, which would leave
+ * blocking uploads parking platform threads.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsCheck {
+
+    static final int MIN_FEATURE_VERSION = 21;
+
+    public VirtualThreadsCheck() {
+        int feature = Runtime.version().feature();
+        if (feature < MIN_FEATURE_VERSION) {
+            throw new IllegalStateException("spring.threads.virtual.enabled needs a Java " + MIN_FEATURE_VERSION
+                    + "+ runtime; this one is Java " + feature);
+        }
+    }
+}
@@ -1,11 +1,24 @@
 package com.data.warehouse.controller;
 
 
+import com.data.warehouse.dto.BatchResultsDto;
+import com.data.warehouse.dto.ImportJobDto;
+import com.data.warehouse.dto.ImportLoader;
 import com.data.warehouse.dto.ResultsDto;
+import com.data.warehouse.services.BatchImportService;
 import com.data.warehouse.services.DealService;
+import com.data.warehouse.services.ImportJob;
+import com.data.warehouse.services.ImportJobService;
+import com.data.warehouse.services.LocalImportSource;
+import com.data.warehouse.services.UploadExecutor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -14,6 +27,11 @@ import org.springframework.web.multipart.MultipartFile;
 
 
 import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 
 
@@ -24,11 +42,72 @@ public class DealController {
 
 
     private final DealService dealService;
+    private final ImportJobService importJobService;
+    private final LocalImportSource localImportSource;
+    private final UploadExecutor uploadExecutor;
+    private final BatchImportService batchImportService;
 
     @PostMapping
-    public ResponseEntity<ResultsDto> importDeals(@RequestParam("file") MultipartFile file) throws IOException {
-        return ResponseEntity.ok(dealService.importCsv(file));
+    public CompletableFuture<ResponseEntity<ResultsDto>> importDeals(@RequestParam("file") MultipartFile file,
+                                                                     @RequestParam(value = "loader", required = false) ImportLoader loader) {
+        return uploadExecutor.submit(() -> ResponseEntity.ok(dealService.importCsv(file, loader)));
+    }
+
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<BatchResultsDto>> importBatch(@RequestParam("files") List<MultipartFile> files,
+                                                                          @RequestParam(value = "loader", required = false) ImportLoader loader) {
+        return uploadExecutor.submit(() -> ResponseEntity.ok(batchImportService.importBatch(files, loader)));
+    }
+
+    @PostMapping("/jobs")
+    public ResponseEntity<ImportJobDto> submitImport(@RequestParam("file") MultipartFile file,
+                                                     @RequestParam(value = "loader", required = false) ImportLoader loader) throws IOException {
+        ImportJob job = importJobService.submit(file, loader);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/import/jobs/" + job.getId()))
+                .body(job.toDto());
+    }
+
+    @PostMapping("/local")
+    public CompletableFuture<ResponseEntity<ResultsDto>> importLocalDeals(@RequestParam("path") String path,
+                                                                          @RequestParam(value = "loader", required = false) ImportLoader loader) throws IOException {
+        Path file = localImportSource.resolve(path);
+        return uploadExecutor.submit(() -> ResponseEntity.ok(dealService.importFile(file, loader)));
+    }
+
+    @PostMapping("/jobs/local")
+    public ResponseEntity<ImportJobDto> submitLocalImport(@RequestParam("path") String path,
+                                                          @RequestParam(value = "loader", required = false) ImportLoader loader) throws IOException {
+        ImportJob job = importJobService.submit(localImportSource.resolve(path), loader, finished -> { });
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/import/jobs/" + job.getId()))
+                .body(job.toDto());
+    }
+
+    @PostMapping("/jobs/{id}/resume")
+    public ResponseEntity<ImportJobDto> resumeImport(@PathVariable String id) throws IOException {
+        ImportJob job = importJobService.resume(id);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/import/jobs/" + job.getId()))
+                .body(job.toDto());
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ImportJobDto> getImport(@PathVariable String id) {
+        return importJobService.find(id)
+                .map(job -> ResponseEntity.ok(job.toDto()))
+                .orElse(ResponseEntity.notFound().build());
+    }
 
+    @GetMapping(value = "/jobs/{id}/errors", produces = "text/csv")
+    public ResponseEntity<Resource> getImportErrors(@PathVariable String id) {
+        return importJobService.find(id)
+                .map(ImportJob::getErrorReport)
+                .filter(Files::exists)
+                .<ResponseEntity<Resource>>map(report -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType("text/csv"))
+                        .body(new FileSystemResource(report)))
+                .orElse(ResponseEntity.notFound().build());
     }
 }
 
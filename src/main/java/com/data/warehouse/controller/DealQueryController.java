@@ -0,0 +1,65 @@
+package com.data.warehouse.controller;
+
+import com.data.warehouse.dto.DealFilterDto;
+import com.data.warehouse.dto.DealPageDto;
+import com.data.warehouse.dto.ExportFilterDto;
+import com.data.warehouse.dto.RollupDto;
+import com.data.warehouse.dto.RollupFilterDto;
+import com.data.warehouse.services.DealExportService;
+import com.data.warehouse.services.DealQueryService;
+import com.data.warehouse.services.DealRollupService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/deals")
+@RequiredArgsConstructor
+public class DealQueryController {
+
+    private final DealQueryService dealQueryService;
+    private final DealRollupService dealRollupService;
+    private final DealExportService dealExportService;
+
+    @GetMapping
+    public ResponseEntity<DealPageDto> findDeals(DealFilterDto filter) {
+        return ResponseEntity.ok(dealQueryService.find(filter));
+    }
+
+    @GetMapping("/rollups")
+    public ResponseEntity<List<RollupDto>> findRollups(RollupFilterDto filter) {
+        return ResponseEntity.ok(dealRollupService.find(filter));
+    }
+
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildRollups() {
+        return ResponseEntity.ok(Map.of("buckets", dealRollupService.rebuild()));
+    }
+
+    /**
+     * Written straight to the servlet response rather than as a {@code StreamingResponseBody}, so the export
+     * runs inside the request thread's read-only transaction and is not cut off by the async request timeout.
+     */
+    @GetMapping("/export")
+    public void exportDeals(ExportFilterDto filter, HttpServletResponse response) throws IOException {
+        String fileName = "deals." + filter.getFormat().getExtension() + (filter.isGzip() ? ".gz" : "");
+        if (filter.isGzip()) {
+            response.setContentType("application/gzip");
+        } else {
+            response.setContentType(filter.getFormat().getContentType());
+            response.setCharacterEncoding("UTF-8");
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString());
+        dealExportService.export(filter, response.getOutputStream());
+    }
+}
@@ -0,0 +1,18 @@
+package com.data.warehouse.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BatchResultsDto {
+
+    private List<FileResultDto> files;
+
+    /**
+     * Counts summed over the imported files; error details are prefixed with their file name.
+     */
+    private ResultsDto total;
+}
@@ -0,0 +1,39 @@
+package com.data.warehouse.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Query parameters of {@code GET /api/deals}; every filter is optional.
+ */
+@Data
+public class DealFilterDto {
+
+    private String fromCurrency;
+    private String toCurrency;
+
+    /**
+     * Inclusive lower bound on the deal timestamp.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    /**
+     * Exclusive upper bound on the deal timestamp.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+
+    /**
+     * The {@code nextCursor} of the previous page.
+     */
+    private String after;
+
+    private Integer limit;
+}
@@ -0,0 +1,19 @@
+package com.data.warehouse.dto;
+
+import com.data.warehouse.models.Deal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class DealPageDto {
+
+    private List<Deal> deals;
+
+    /**
+     * Pass as {@code after} to get the next page; null on the last page.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,33 @@
+package com.data.warehouse.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ExportFilterDto {
+
+    private String fromCurrency;
+
+    private String toCurrency;
+
+    /**
+     * Inclusive.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    /**
+     * Exclusive.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    private ExportFormat format = ExportFormat.CSV;
+
+    /**
+     * Whether the file is sent gzip compressed.
+     */
+    private boolean gzip;
+}
@@ -0,0 +1,19 @@
+package com.data.warehouse.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Outcome of one file of a batch: its result, or why it could not be imported.
+ */
+@Data
+@AllArgsConstructor
+public class FileResultDto {
+
+    /**
+     * The uploaded file name; entries of an archive are named {@code archive.zip!/entry.csv}.
+     */
+    private String file;
+    private ResultsDto result;
+    private String error;
+}
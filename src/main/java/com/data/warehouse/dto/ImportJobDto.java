@@ -0,0 +1,24 @@
+package com.data.warehouse.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class ImportJobDto {
+
+    private String id;
+    private String fileName;
+    private String status;
+    private long parsed;
+    private long saved;
+    private long duplicates;
+    private long invalid;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private ResultsDto result;
+    private String error;
+}
@@ -0,0 +1,15 @@
+package com.data.warehouse.dto;
+
+/**
+ * How an import writes the rows of each chunk to {@code deals}.
+ */
+public enum ImportLoader {
+    /**
+     * Multi-row {@code INSERT ... VALUES} statements of {@code warehouse.import.batch-size} rows.
+     */
+    INSERT,
+    /**
+     * {@code COPY} of the whole chunk into {@code deals_staging}, moved into {@code deals} by one statement.
+     */
+    COPY
+}
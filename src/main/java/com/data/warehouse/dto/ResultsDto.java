@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 
 import java.util.List;
+import java.util.Map;
 
 @Data
 @AllArgsConstructor
@@ -14,4 +15,29 @@ public class ResultsDto {
     private int duplicates;
     private int invalid;
     private List<String> errors;
+
+    /**
+     * Rejected rows per reason code, counted over the whole file.
+     */
+    private Map<String, Long> errorCounts;
+
+    /**
+     * Whether {@link #errors} lists only the first rejected rows.
+     */
+    private boolean errorsTruncated;
+
+    /**
+     * Why the import stopped early, e.g. a malformed row; the counts cover the rows committed before it.
+     * {@code null} when the whole file was read.
+     */
+    private String error;
+
+    public ResultsDto(int saved, int duplicates, int invalid, List<String> errors) {
+        this(saved, duplicates, invalid, errors, Map.of(), false);
+    }
+
+    public ResultsDto(int saved, int duplicates, int invalid, List<String> errors, Map<String, Long> errorCounts,
+                      boolean errorsTruncated) {
+        this(saved, duplicates, invalid, errors, errorCounts, errorsTruncated, null);
+    }
 }
@@ -0,0 +1,20 @@
+package com.data.warehouse.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class RollupDto {
+
+    private String fromCurrency;
+    private String toCurrency;
+    private LocalDateTime bucket;
+    private long count;
+    private BigDecimal sum;
+    private BigDecimal min;
+    private BigDecimal max;
+}
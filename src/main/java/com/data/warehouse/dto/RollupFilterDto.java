@@ -0,0 +1,28 @@
+package com.data.warehouse.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+@Data
+public class RollupFilterDto {
+
+    private String fromCurrency;
+
+    private String toCurrency;
+
+    /**
+     * Inclusive lower bound, matched against the start of each hour.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    /**
+     * Exclusive upper bound, matched against the start of each hour.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    private RollupGranularity granularity = RollupGranularity.DAY;
+}
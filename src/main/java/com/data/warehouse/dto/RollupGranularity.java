@@ -0,0 +1,5 @@
+package com.data.warehouse.dto;
+
+public enum RollupGranularity {
+    HOUR, DAY
+}
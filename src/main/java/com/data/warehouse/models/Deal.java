@@ -2,26 +2,38 @@ package com.data.warehouse.models;
 
 
 import com.data.warehouse.dto.DealsDto;
+import com.data.warehouse.utils.FixedPoint;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
 import java.math.BigDecimal;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 
+/**
+ * Stored in {@code deals}, range-partitioned by month of {@code timestamp} (see {@code db/migration}). A
+ * partitioned table cannot hold a unique index on {@code dealId}; uniqueness is kept by the {@code deal_ids}
+ * registry instead, and an insert whose {@code dealId} is taken is skipped.
+ * <p>
+ * Imported amounts that are exact at the scale of {@code fromCurrency} are held as a scaled {@code long}
+ * (see {@link FixedPoint}) and only become a {@link BigDecimal} when {@link #getAmount()} is called, which the
+ * JDBC writers do when binding the row. The scaled form is internal and left out of the JSON.
+ */
 @Entity
-@Table(name = "deals", uniqueConstraints = @UniqueConstraint(columnNames = "dealId"))
+@Table(name = "deals")
 @NoArgsConstructor
-@AllArgsConstructor
 @Data
-@Builder
 public class Deal {
 
+    private static final int NO_SCALE = -1;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String dealId;
 
     @Column(nullable = false, length = 3)
@@ -36,16 +48,108 @@ public class Deal {
     @Column(nullable = false)
     private BigDecimal amount;
 
+    // transient: ignored by JPA and by equals/hashCode, which compare getAmount()
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient long amountUnits;
+
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient int amountScale = NO_SCALE;
+
+    @Builder
+    public Deal(Long id, String dealId, String fromCurrency, String toCurrency, LocalDateTime timestamp,
+                BigDecimal amount) {
+        this.id = id;
+        this.dealId = dealId;
+        this.fromCurrency = fromCurrency;
+        this.toCurrency = toCurrency;
+        this.timestamp = timestamp;
+        this.amount = amount;
+    }
+
+    public BigDecimal getAmount() {
+        return amountScale == NO_SCALE ? amount : FixedPoint.toBigDecimal(amountUnits, amountScale);
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+        this.amountScale = NO_SCALE;
+    }
+
+    /**
+     * Sets the amount to {@code units × 10^-scale} without creating a {@link BigDecimal}.
+     */
+    public void setAmount(long units, int scale) {
+        this.amount = null;
+        this.amountUnits = units;
+        this.amountScale = scale;
+    }
+
+    /**
+     * Sets the amount as a scaled {@code long} if it is exact at the scale of {@code fromCurrency}, as is
+     * otherwise.
+     */
+    public void setAmountAtCurrencyScale(BigDecimal amount) {
+        int scale = FixedPoint.scale(fromCurrency);
+        long units = amount == null ? FixedPoint.NONE : FixedPoint.units(amount, scale);
+        if (units == FixedPoint.NONE) {
+            setAmount(amount);
+        } else {
+            setAmount(units, scale);
+        }
+    }
+
+    @JsonIgnore
+    public boolean isScaledAmount() {
+        return amountScale != NO_SCALE;
+    }
+
+    /**
+     * The amount in units of {@code 10^-}{@link #getAmountScale()}; only meaningful if {@link #isScaledAmount()}.
+     */
+    @JsonIgnore
+    public long getAmountUnits() {
+        return amountUnits;
+    }
+
+    @JsonIgnore
+    public int getAmountScale() {
+        return amountScale;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void materializeAmount() {
+        if (isScaledAmount()) {
+            amount = FixedPoint.toBigDecimal(amountUnits, amountScale);
+        }
+    }
 
+
+    /**
+     * An unparseable timestamp is left {@code null}, so the row is rejected by validation rather than failing
+     * the import.
+     */
     public static Deal toEntity(DealsDto dto) {
-        return new Deal(
+        Deal deal = new Deal(
                 null,
                 dto.getDealId(),
                 dto.getFromCurrency().toUpperCase(),
                 dto.getToCurrency().toUpperCase(),
-                LocalDateTime.parse(dto.getTimestamp()),
-                dto.getAmount()
+                parseTimestamp(dto.getTimestamp()),
+                null
         );
+        deal.setAmountAtCurrencyScale(dto.getAmount());
+        return deal;
+    }
+
+    private static LocalDateTime parseTimestamp(String timestamp) {
+        try {
+            return LocalDateTime.parse(timestamp);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
     }
 }
 
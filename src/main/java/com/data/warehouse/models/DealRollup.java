@@ -0,0 +1,57 @@
+package com.data.warehouse.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Count and amount totals of the deals of one currency pair within one hour. Maintained by the import as
+ * chunks commit, and recomputed from {@code deals} by a rebuild.
+ */
+@Entity
+@Table(name = "deal_rollups")
+@IdClass(DealRollup.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class DealRollup {
+
+    @Id
+    @Column(length = 3)
+    private String fromCurrency;
+
+    @Id
+    @Column(length = 3)
+    private String toCurrency;
+
+    /**
+     * Start of the hour.
+     */
+    @Id
+    private LocalDateTime bucket;
+
+    private long dealCount;
+
+    @Column(nullable = false)
+    private BigDecimal amountSum;
+
+    @Column(nullable = false)
+    private BigDecimal amountMin;
+
+    @Column(nullable = false)
+    private BigDecimal amountMax;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private String fromCurrency;
+        private String toCurrency;
+        private LocalDateTime bucket;
+    }
+}
@@ -0,0 +1,60 @@
+package com.data.warehouse.models;
+
+import com.data.warehouse.dto.ImportLoader;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Progress of a background import as of its last committed chunk. Written in the same transaction
+ * as the chunk's rows, so {@code rowsCommitted} is exactly where a resumed import has to continue.
+ */
+@Entity
+@Table(name = "import_checkpoints")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class ImportCheckpoint {
+
+    public enum Status {
+        RUNNING, FAILED
+    }
+
+    @Id
+    @Column(length = 36)
+    private String jobId;
+
+    private String fileName;
+
+    @Column(nullable = false, length = 4096)
+    private String sourcePath;
+
+    /**
+     * Whether the source is a spooled upload that goes away with the job, rather than a file owned by someone else.
+     */
+    private boolean ownsSource;
+
+    private long rowsCommitted;
+
+    private long saved;
+
+    private long duplicates;
+
+    private long invalid;
+
+    /**
+     * {@code null} for the configured default.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private ImportLoader loader;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+}
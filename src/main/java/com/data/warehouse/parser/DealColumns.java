@@ -0,0 +1,374 @@
+package com.data.warehouse.parser;
+
+import com.data.warehouse.models.Deal;
+import com.data.warehouse.utils.FixedPoint;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A chunk of deals held column by column instead of as {@link Deal} objects: dealIds as UTF-8 bytes back to back
+ * in one shared arena, currencies as {@code short} keys of their three letters, timestamps as UTC epoch seconds
+ * plus nanos, and amounts as scaled {@code long}s (see {@link FixedPoint}). A row takes about 30 bytes plus its
+ * dealId and the whole chunk is a dozen primitive arrays, where the same rows as entities cost 200 to 300 bytes
+ * and five objects each. The rare values a column cannot hold, currency codes that are not three letters and
+ * amounts beyond {@link FixedPoint}, are kept aside as objects.
+ * <p>
+ * {@link #select} gives a view of some of the rows over the same columns. Filled by one thread and only read
+ * after it has been handed on; not thread-safe.
+ */
+public final class DealColumns {
+
+    /** Key of a currency code that is not three letters A-Z; the code itself is kept aside. */
+    public static final short OTHER_CURRENCY = -1;
+
+    /** Epoch second of a timestamp that could not be parsed. */
+    static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    private static final byte OTHER_AMOUNT = -1;
+    private static final int LETTERS = 26;
+
+    /** Codes by key, filled lazily; racing writers store equal Strings. */
+    private static final String[] CODES = new String[LETTERS * LETTERS * LETTERS];
+
+    private final Store store;
+    private final int[] rows;
+
+    public DealColumns(int capacity) {
+        this(new Store(Math.max(1, capacity)), null);
+    }
+
+    private DealColumns(Store store, int[] rows) {
+        this.store = store;
+        this.rows = rows;
+    }
+
+    public static DealColumns of(Collection<Deal> deals) {
+        DealColumns columns = new DealColumns(deals.size());
+        deals.forEach(columns::add);
+        return columns;
+    }
+
+    /**
+     * Appends a deal; a {@code null} dealId is stored as an empty one.
+     */
+    public void add(Deal deal) {
+        byte[] id = deal.getDealId() == null ? new byte[0] : deal.getDealId().getBytes(StandardCharsets.UTF_8);
+        LocalDateTime timestamp = deal.getTimestamp();
+        int row = addRow(id, 0, id.length, currencyKey(deal.getFromCurrency()), deal.getFromCurrency(),
+                currencyKey(deal.getToCurrency()), deal.getToCurrency(),
+                timestamp == null ? NO_TIMESTAMP : timestamp.toEpochSecond(ZoneOffset.UTC),
+                timestamp == null ? 0 : timestamp.getNano());
+        if (deal.isScaledAmount()) {
+            store.setAmount(row, deal.getAmountUnits(), deal.getAmountScale());
+        } else {
+            store.setAmount(row, deal.getAmount());
+        }
+    }
+
+    /**
+     * A view of the given rows of this view, in that order, sharing its columns.
+     */
+    public DealColumns select(int[] selected) {
+        int[] physical = new int[selected.length];
+        for (int i = 0; i < selected.length; i++) {
+            physical[i] = row(selected[i]);
+        }
+        return new DealColumns(store, physical);
+    }
+
+    public int size() {
+        return rows == null ? store.size : rows.length;
+    }
+
+    /**
+     * Decoded on first use and kept, so a row's dealId is only ever one String.
+     */
+    public String dealId(int index) {
+        int row = row(index);
+        if (store.dealIds == null) {
+            store.dealIds = new String[store.size];
+        }
+        String dealId = store.dealIds[row];
+        if (dealId == null) {
+            int from = store.idStart(row);
+            dealId = new String(store.idBytes, from, store.idEnds[row] - from, StandardCharsets.UTF_8);
+            store.dealIds[row] = dealId;
+        }
+        return dealId;
+    }
+
+    public List<String> dealIds() {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                return dealId(index);
+            }
+
+            @Override
+            public int size() {
+                return DealColumns.this.size();
+            }
+        };
+    }
+
+    /**
+     * Whether the dealId is empty or whitespace only, as {@code StringUtils.isBlank} would say.
+     */
+    public boolean isDealIdBlank(int index) {
+        int row = row(index);
+        for (int i = store.idStart(row); i < store.idEnds[row]; i++) {
+            byte b = store.idBytes[i];
+            if (b < 0) {
+                return dealId(index).isBlank();
+            }
+            if (!Character.isWhitespace(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@code (a * 26 + b) * 26 + c} for the letters {@code a}, {@code b}, {@code c} counted from A, or
+     * {@link #OTHER_CURRENCY}.
+     */
+    public short fromCurrencyKey(int index) {
+        return store.fromCurrencies[row(index)];
+    }
+
+    public short toCurrencyKey(int index) {
+        return store.toCurrencies[row(index)];
+    }
+
+    public String fromCurrency(int index) {
+        int row = row(index);
+        short key = store.fromCurrencies[row];
+        return key == OTHER_CURRENCY ? store.otherCurrencies[2 * row] : currencyCode(key);
+    }
+
+    public String toCurrency(int index) {
+        int row = row(index);
+        short key = store.toCurrencies[row];
+        return key == OTHER_CURRENCY ? store.otherCurrencies[2 * row + 1] : currencyCode(key);
+    }
+
+    public boolean hasTimestamp(int index) {
+        return store.epochSeconds[row(index)] != NO_TIMESTAMP;
+    }
+
+    public long epochSecond(int index) {
+        return store.epochSeconds[row(index)];
+    }
+
+    public int nano(int index) {
+        return store.nanos[row(index)];
+    }
+
+    public LocalDateTime timestamp(int index) {
+        int row = row(index);
+        long seconds = store.epochSeconds[row];
+        return seconds == NO_TIMESTAMP ? null : LocalDateTime.ofEpochSecond(seconds, store.nanos[row], ZoneOffset.UTC);
+    }
+
+    public boolean isScaledAmount(int index) {
+        return store.amountScales[row(index)] != OTHER_AMOUNT;
+    }
+
+    /**
+     * The amount in units of {@code 10^-}{@link #amountScale}; only meaningful if {@link #isScaledAmount}.
+     */
+    public long amountUnits(int index) {
+        return store.amountUnits[row(index)];
+    }
+
+    public int amountScale(int index) {
+        return store.amountScales[row(index)];
+    }
+
+    public BigDecimal amount(int index) {
+        int row = row(index);
+        byte scale = store.amountScales[row];
+        return scale == OTHER_AMOUNT ? store.otherAmounts[row] : FixedPoint.toBigDecimal(store.amountUnits[row], scale);
+    }
+
+    public Deal toDeal(int index) {
+        Deal deal = new Deal(null, dealId(index), fromCurrency(index), toCurrency(index), timestamp(index), null);
+        if (isScaledAmount(index)) {
+            deal.setAmount(amountUnits(index), amountScale(index));
+        } else {
+            deal.setAmount(amount(index));
+        }
+        return deal;
+    }
+
+    public List<Deal> toDeals() {
+        Deal[] deals = new Deal[size()];
+        for (int i = 0; i < deals.length; i++) {
+            deals[i] = toDeal(i);
+        }
+        return Arrays.asList(deals);
+    }
+
+    /**
+     * The key of three ASCII letters, upper-cased, or {@link #OTHER_CURRENCY}.
+     */
+    static short currencyKey(byte[] b, int from, int to) {
+        if (to - from != 3) {
+            return OTHER_CURRENCY;
+        }
+        int c0 = letter(b[from] | 0x20), c1 = letter(b[from + 1] | 0x20), c2 = letter(b[from + 2] | 0x20);
+        return (c0 | c1 | c2) < 0 ? OTHER_CURRENCY : (short) ((c0 * LETTERS + c1) * LETTERS + c2);
+    }
+
+    static String currencyCode(short key) {
+        String code = CODES[key];
+        if (code == null) {
+            code = new String(new char[]{
+                    (char) ('A' + key / (LETTERS * LETTERS)), (char) ('A' + key / LETTERS % LETTERS), (char) ('A' + key % LETTERS)});
+            CODES[key] = code;
+        }
+        return code;
+    }
+
+    /**
+     * Appends a row from parsed fields; {@code fromCurrency} and {@code toCurrency} are only read for
+     * {@link #OTHER_CURRENCY} keys. The amount is set separately.
+     */
+    int addRow(byte[] id, int idFrom, int idTo, short fromKey, String fromCurrency, short toKey, String toCurrency,
+               long epochSecond, int nano) {
+        int row = store.add(id, idFrom, idTo, epochSecond, nano);
+        store.fromCurrencies[row] = fromKey;
+        store.toCurrencies[row] = toKey;
+        if (fromKey == OTHER_CURRENCY || toKey == OTHER_CURRENCY) {
+            store.setOtherCurrencies(row, fromCurrency, toCurrency);
+        }
+        return row;
+    }
+
+    void setAmount(int row, long units, int scale) {
+        store.setAmount(row, units, scale);
+    }
+
+    void setAmount(int row, BigDecimal amount) {
+        store.setAmount(row, amount);
+    }
+
+    private static short currencyKey(String code) {
+        if (code == null || code.length() != 3) {
+            return OTHER_CURRENCY;
+        }
+        int c0 = upperLetter(code.charAt(0)), c1 = upperLetter(code.charAt(1)), c2 = upperLetter(code.charAt(2));
+        return (c0 | c1 | c2) < 0 ? OTHER_CURRENCY : (short) ((c0 * LETTERS + c1) * LETTERS + c2);
+    }
+
+    private static int letter(int c) {
+        return c >= 'a' && c <= 'z' ? c - 'a' : -1;
+    }
+
+    private static int upperLetter(char c) {
+        return c >= 'A' && c <= 'Z' ? c - 'A' : -1;
+    }
+
+    private int row(int index) {
+        if (rows != null) {
+            return rows[index];
+        }
+        if (index >= store.size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return index;
+    }
+
+    private static final class Store {
+
+        private byte[] idBytes;
+        private int[] idEnds;
+        private short[] fromCurrencies;
+        private short[] toCurrencies;
+        private long[] epochSeconds;
+        private int[] nanos;
+        private long[] amountUnits;
+        private byte[] amountScales;
+        private int size;
+
+        /** Aside, allocated on first use: [2 * row] from, [2 * row + 1] to. */
+        private String[] otherCurrencies;
+        private BigDecimal[] otherAmounts;
+        private String[] dealIds;
+
+        private Store(int capacity) {
+            idBytes = new byte[capacity * 16];
+            idEnds = new int[capacity];
+            fromCurrencies = new short[capacity];
+            toCurrencies = new short[capacity];
+            epochSeconds = new long[capacity];
+            nanos = new int[capacity];
+            amountUnits = new long[capacity];
+            amountScales = new byte[capacity];
+        }
+
+        private int idStart(int row) {
+            return row == 0 ? 0 : idEnds[row - 1];
+        }
+
+        private int add(byte[] id, int from, int to, long epochSecond, int nano) {
+            if (size == idEnds.length) {
+                grow();
+            }
+            int start = idStart(size);
+            int end = start + to - from;
+            if (end > idBytes.length) {
+                idBytes = Arrays.copyOf(idBytes, Math.max(end, idBytes.length * 2));
+            }
+            System.arraycopy(id, from, idBytes, start, to - from);
+            idEnds[size] = end;
+            epochSeconds[size] = epochSecond;
+            nanos[size] = nano;
+            return size++;
+        }
+
+        private void setOtherCurrencies(int row, String from, String to) {
+            if (otherCurrencies == null) {
+                otherCurrencies = new String[2 * idEnds.length];
+            }
+            otherCurrencies[2 * row] = from;
+            otherCurrencies[2 * row + 1] = to;
+        }
+
+        private void setAmount(int row, long units, int scale) {
+            amountUnits[row] = units;
+            amountScales[row] = (byte) scale;
+        }
+
+        private void setAmount(int row, BigDecimal amount) {
+            if (otherAmounts == null) {
+                otherAmounts = new BigDecimal[idEnds.length];
+            }
+            otherAmounts[row] = amount;
+            amountScales[row] = OTHER_AMOUNT;
+        }
+
+        private void grow() {
+            int capacity = idEnds.length * 2;
+            idEnds = Arrays.copyOf(idEnds, capacity);
+            fromCurrencies = Arrays.copyOf(fromCurrencies, capacity);
+            toCurrencies = Arrays.copyOf(toCurrencies, capacity);
+            epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+            nanos = Arrays.copyOf(nanos, capacity);
+            amountUnits = Arrays.copyOf(amountUnits, capacity);
+            amountScales = Arrays.copyOf(amountScales, capacity);
+            if (otherCurrencies != null) {
+                otherCurrencies = Arrays.copyOf(otherCurrencies, 2 * capacity);
+            }
+            if (otherAmounts != null) {
+                otherAmounts = Arrays.copyOf(otherAmounts, capacity);
+            }
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.data.warehouse.parser;
+
+import com.data.warehouse.models.Deal;
+import com.data.warehouse.utils.FixedPoint;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parses rows of the fixed {@code dealId,fromCurrency,toCurrency,timestamp,amount} layout straight from
+ * bytes into {@link DealColumns}, with the same values as the OpenCSV binding plus {@link Deal#toEntity}.
+ * Common shapes (three-letter codes, {@code yyyy-MM-ddTHH:mm[:ss[.f]]} timestamps, plain decimals) are
+ * decoded into the columns without any object per row, amounts as scaled {@code long}s (see {@link FixedPoint});
+ * anything else goes through the JDK parsers. An unparseable timestamp is left out for validation to reject.
+ * Stateless and thread-safe.
+ */
+public final class DealRowParser {
+
+    public static final String HEADER = "dealId,fromCurrency,toCurrency,timestamp,amount";
+
+    private static final String[] COLUMNS = HEADER.split(",");
+    private static final int FIELDS = COLUMNS.length;
+    private static final byte[] HEADER_BYTES = HEADER.getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_LONG_DIGITS = 18;
+
+    /** Days from 0000-01-01 to 1970-01-01, as in {@link java.time.LocalDate}. */
+    private static final long DAYS_0000_TO_1970 = 146097 * 5L - (30L * 365L + 7L);
+
+    private DealRowParser() {
+    }
+
+    /**
+     * Whether a header line (without line terminator) is exactly the fixed layout, ignoring a UTF-8 BOM.
+     */
+    public static boolean isFixedLayout(byte[] header) {
+        int from = header.length >= 3 && (header[0] & 0xFF) == 0xEF && (header[1] & 0xFF) == 0xBB
+                && (header[2] & 0xFF) == 0xBF ? 3 : 0;
+        return Arrays.equals(header, from, header.length, HEADER_BYTES, 0, HEADER_BYTES.length);
+    }
+
+    public static List<Deal> parse(RowChunk chunk) {
+        return parseColumns(chunk).toDeals();
+    }
+
+    /**
+     * Parses the chunk into columns, without a {@link Deal} or, in the common shapes, any other object per row.
+     */
+    public static DealColumns parseColumns(RowChunk chunk) {
+        byte[] data = chunk.data();
+        DealColumns columns = new DealColumns(chunk.rows());
+        Fields fields = new Fields();
+        long row = chunk.firstRow();
+        int pos = 0;
+        while (pos < data.length) {
+            pos = fields.split(data, pos, row);
+            addRow(fields, row, columns);
+            row++;
+        }
+        return columns;
+    }
+
+    private static void addRow(Fields f, long row, DealColumns columns) {
+        for (int i = 0; i < FIELDS; i++) {
+            if (f.to[i] == f.from[i]) {
+                throw new MalformedRowException(row, "Field '" + COLUMNS[i] + "' is mandatory but no value was provided.");
+            }
+        }
+        short fromKey = DealColumns.currencyKey(f.src[1], f.from[1], f.to[1]);
+        short toKey = DealColumns.currencyKey(f.src[2], f.from[2], f.to[2]);
+        String fromCurrency = fromKey == DealColumns.OTHER_CURRENCY ? otherCurrency(f.src[1], f.from[1], f.to[1])
+                : DealColumns.currencyCode(fromKey);
+        String toCurrency = toKey == DealColumns.OTHER_CURRENCY ? otherCurrency(f.src[2], f.from[2], f.to[2]) : null;
+        long epochSecond = epochSecond(f.src[3], f.from[3], f.to[3], f);
+        int index = columns.addRow(f.src[0], f.from[0], f.to[0], fromKey, fromCurrency, toKey, toCurrency,
+                epochSecond, f.nano);
+
+        int scale = FixedPoint.scale(fromCurrency);
+        long units = FixedPoint.parse(f.src[4], f.from[4], f.to[4], scale);
+        if (units == FixedPoint.NONE) {
+            BigDecimal amount = amount(f.src[4], f.from[4], f.to[4], row);
+            units = FixedPoint.units(amount, scale);
+            if (units == FixedPoint.NONE) {
+                columns.setAmount(index, amount);
+                return;
+            }
+        }
+        columns.setAmount(index, units, scale);
+    }
+
+    private static String otherCurrency(byte[] b, int from, int to) {
+        return new String(b, from, to - from, StandardCharsets.UTF_8).toUpperCase();
+    }
+
+    /**
+     * UTC epoch second of an ISO local date-time, with its nanos left in {@code f.nano}, or
+     * {@link DealColumns#NO_TIMESTAMP} if it cannot be parsed.
+     */
+    static long epochSecond(byte[] b, int from, int to, Fields f) {
+        f.nano = 0;
+        int len = to - from;
+        if (len >= 16 && b[from + 4] == '-' && b[from + 7] == '-' && b[from + 10] == 'T' && b[from + 13] == ':') {
+            int year = digits(b, from, 4), month = digits(b, from + 5, 2), day = digits(b, from + 8, 2);
+            int hour = digits(b, from + 11, 2), minute = digits(b, from + 14, 2);
+            int second = 0, nano = 0;
+            boolean simple = len == 16;
+            if (len >= 19 && b[from + 16] == ':') {
+                second = digits(b, from + 17, 2);
+                simple = len == 19;
+                if (len > 20 && len <= 29 && b[from + 19] == '.') {
+                    nano = digits(b, from + 20, len - 20);
+                    for (int i = len - 20; i < 9; i++) {
+                        nano *= 10;
+                    }
+                    simple = nano >= 0;
+                }
+            }
+            if (simple && (year | month | day | hour | minute | second) >= 0) {
+                if (month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))
+                        || hour > 23 || minute > 59 || second > 59) {
+                    return DealColumns.NO_TIMESTAMP;
+                }
+                f.nano = nano;
+                return epochDay(year, month, day) * 86_400 + hour * 3600 + minute * 60 + second;
+            }
+        }
+        try {
+            LocalDateTime timestamp = LocalDateTime.parse(new String(b, from, len, StandardCharsets.UTF_8));
+            f.nano = timestamp.getNano();
+            return timestamp.toEpochSecond(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            return DealColumns.NO_TIMESTAMP;
+        }
+    }
+
+    /** {@link java.time.LocalDate#toEpochDay} without the LocalDate. */
+    private static long epochDay(long year, int month, int day) {
+        long total = 365 * year;
+        if (year >= 0) {
+            total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        } else {
+            total -= year / -4 - year / -100 + year / -400;
+        }
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!Year.isLeap(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /** Decimal value of {@code count} ASCII digits, or -1 if any byte is not a digit. */
+    private static int digits(byte[] b, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int d = b[i] - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    static BigDecimal amount(byte[] b, int from, int to, long row) {
+        while (to > from && isBlank(b[to - 1])) {
+            to--;
+        }
+        while (from < to && isBlank(b[from])) {
+            from++;
+        }
+        int i = from;
+        boolean negative = false;
+        if (i < to && (b[i] == '-' || b[i] == '+')) {
+            negative = b[i] == '-';
+            i++;
+        }
+        long unscaled = 0;
+        int digitCount = 0, scale = -1;
+        for (; i < to; i++) {
+            byte c = b[i];
+            if (c >= '0' && c <= '9') {
+                unscaled = unscaled * 10 + (c - '0');
+                digitCount++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+        }
+        if (i == to && digitCount > 0 && digitCount <= MAX_LONG_DIGITS) {
+            return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+        }
+        String text = new String(b, from, to - from, StandardCharsets.UTF_8);
+        try {
+            return new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            throw new MalformedRowException(row, "Conversion of " + text + " to java.math.BigDecimal failed.");
+        }
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    /**
+     * Field boundaries of the current row. Unquoted fields point into the chunk; quoted fields are
+     * unescaped into their own small array.
+     */
+    private static final class Fields {
+        private final byte[][] src = new byte[FIELDS][];
+        private final int[] from = new int[FIELDS];
+        private final int[] to = new int[FIELDS];
+        /** Nanos of the last {@link #epochSecond} result. */
+        private int nano;
+
+        /** Splits the row starting at {@code pos}; returns the start of the next row. */
+        int split(byte[] data, int pos, long row) {
+            int field = 0;
+            while (true) {
+                if (field == FIELDS) {
+                    throw new MalformedRowException(row, "Number of data fields exceeds number of headers.");
+                }
+                int start = pos;
+                while (pos < data.length && isBlank(data[pos])) {
+                    pos++;
+                }
+                if (pos < data.length && data[pos] == '"') {
+                    pos = quoted(data, start, pos + 1, field);
+                } else {
+                    pos = start;
+                    while (pos < data.length && data[pos] != ',' && data[pos] != '\n') {
+                        pos++;
+                    }
+                    src[field] = data;
+                    from[field] = start;
+                    to[field] = pos < data.length && data[pos] == ',' ? pos : RowChunkReader.trimLineEnd(data, start, pos);
+                }
+                field++;
+                if (pos >= data.length || data[pos] == '\n') {
+                    if (field != FIELDS) {
+                        throw new MalformedRowException(row, "Number of data fields does not match number of headers.");
+                    }
+                    return pos + 1;
+                }
+                pos++;
+            }
+        }
+
+        /** Blanks before the opening quote stay part of the value, as they do in OpenCSV. */
+        private int quoted(byte[] data, int start, int pos, int field) {
+            int length = pos - 1 - start;
+            byte[] value = Arrays.copyOfRange(data, start, start + Math.max(16, length));
+            while (pos < data.length) {
+                byte c = data[pos++];
+                if (c == '"') {
+                    if (pos < data.length && data[pos] == '"') {
+                        pos++;
+                    } else {
+                        break;
+                    }
+                }
+                if (length == value.length) {
+                    value = Arrays.copyOf(value, length * 2);
+                }
+                value[length++] = c;
+            }
+            while (pos < data.length && data[pos] != ',' && data[pos] != '\n') {
+                pos++;
+            }
+            src[field] = value;
+            from[field] = 0;
+            to[field] = length;
+            return pos;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.data.warehouse.parser;
+
+/**
+ * A row that does not fit the CSV layout at all, as opposed to a well-formed row with invalid values.
+ */
+public class MalformedRowException extends RuntimeException {
+
+    public MalformedRowException(long row, String message) {
+        super("row " + row + ": " + message);
+    }
+}
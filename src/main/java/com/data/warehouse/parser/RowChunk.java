@@ -0,0 +1,7 @@
+package com.data.warehouse.parser;
+
+/**
+ * A run of complete CSV rows as raw bytes, starting at data row {@code firstRow} (1-based, header excluded).
+ */
+public record RowChunk(byte[] data, long firstRow, int rows) {
+}
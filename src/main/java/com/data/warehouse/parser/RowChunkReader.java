@@ -0,0 +1,132 @@
+package com.data.warehouse.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+
+/**
+ * Cuts a CSV byte stream into {@link RowChunk}s of a fixed number of rows without decoding it.
+ * Newlines inside quoted fields do not end a row. Only the bytes of the chunk being assembled are
+ * buffered; every emitted chunk is a copy, so chunks can be handed to other threads.
+ */
+public class RowChunkReader {
+
+    private static final int INITIAL_BUFFER = 64 * 1024;
+
+    private final InputStream in;
+    private final int rowsPerChunk;
+
+    private byte[] buffer = new byte[INITIAL_BUFFER];
+    private int start;
+    private int scan;
+    private int cursor;
+    private int end;
+    private boolean inQuotes;
+    private boolean eof;
+    private boolean compacted;
+    private long rowsRead;
+
+    public RowChunkReader(InputStream in, int rowsPerChunk) {
+        this.in = in;
+        this.rowsPerChunk = Math.max(1, rowsPerChunk);
+    }
+
+    /**
+     * Reads the first line, without its line terminator.
+     */
+    public byte[] readHeader() throws IOException {
+        int lineEnd = nextLineEnd();
+        if (lineEnd < 0) {
+            return new byte[0];
+        }
+        byte[] header = Arrays.copyOfRange(buffer, start, trimLineEnd(buffer, start, lineEnd));
+        start = scan;
+        return header;
+    }
+
+    /**
+     * The whole input as if nothing had been read yet; only valid before the first {@link #next()}.
+     */
+    public InputStream replay() {
+        if (compacted) {
+            throw new IllegalStateException("Input already consumed past the header");
+        }
+        return new SequenceInputStream(new ByteArrayInputStream(buffer, 0, end), in);
+    }
+
+    /**
+     * @return the next chunk, or {@code null} at the end of the input
+     */
+    public RowChunk next() throws IOException {
+        int rows = 0;
+        while (rows < rowsPerChunk && nextLineEnd() >= 0) {
+            rows++;
+        }
+        if (rows == 0) {
+            return null;
+        }
+        RowChunk chunk = new RowChunk(Arrays.copyOfRange(buffer, start, scan), rowsRead + 1, rows);
+        rowsRead += rows;
+        start = scan;
+        return chunk;
+    }
+
+    /**
+     * Advances {@code scan} past the next row and returns the index of its terminating newline
+     * (the end of the input when the last row has none), or -1 when no row is left.
+     */
+    private int nextLineEnd() throws IOException {
+        while (true) {
+            for (int i = cursor; i < end; i++) {
+                byte b = buffer[i];
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n' && !inQuotes) {
+                    cursor = i + 1;
+                    scan = cursor;
+                    return i;
+                }
+            }
+            cursor = end;
+            if (!fill()) {
+                if (end > scan) {
+                    scan = end;
+                    inQuotes = false;
+                    return end;
+                }
+                return -1;
+            }
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        if (end == buffer.length) {
+            if (start > 0) {
+                System.arraycopy(buffer, start, buffer, 0, end - start);
+                scan -= start;
+                cursor -= start;
+                end -= start;
+                start = 0;
+                compacted = true;
+            } else {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        int read = in.read(buffer, end, buffer.length - end);
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        end += read;
+        return true;
+    }
+
+    static int trimLineEnd(byte[] data, int from, int lineEnd) {
+        return lineEnd > from && data[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+    }
+}
@@ -0,0 +1,98 @@
+package com.data.warehouse.repository;
+
+
+import com.data.warehouse.config.ImportDatabase;
+import com.data.warehouse.config.ImportProperties;
+import com.data.warehouse.models.Deal;
+import com.data.warehouse.parser.DealColumns;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Bulk insert path for {@link Deal}s, bound straight from {@link DealColumns}. Rows are written as multi-row {@code INSERT ... VALUES}
+ * statements of {@code warehouse.import.batch-size} rows, one round trip per batch, and the
+ * ids are left to the {@code deals.id} identity column. Rows whose {@code dealId} already exists
+ * are skipped by the {@code deal_ids} registration trigger, so a concurrent import of the same ids
+ * never fails the batch; only the ids actually written are returned.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DealBatchRepository {
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO deals (deal_id, from_currency, to_currency, timestamp, amount) VALUES ";
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?)";
+    private static final String INSERT_SUFFIX = " RETURNING deal_id";
+    private static final int COLUMNS = 5;
+
+    // PostgreSQL caps a statement at 65535 bind parameters.
+    private static final int MAX_ROWS_PER_STATEMENT = 65535 / COLUMNS;
+
+    private final ImportDatabase importDatabase;
+    private final ImportProperties importProperties;
+
+    private volatile InsertStatement fullBatch;
+
+    public Set<String> insertIgnoringDuplicates(DealColumns deals) {
+        int batchSize = batchSize();
+        Set<String> inserted = new HashSet<>(deals.size() * 2);
+
+        for (int from = 0; from < deals.size(); from += batchSize) {
+            int batchFrom = from;
+            int batchTo = Math.min(deals.size(), from + batchSize);
+            importDatabase.getJdbcTemplate().query(insertSql(batchTo - batchFrom, batchSize), ps -> bind(ps, deals, batchFrom, batchTo),
+                    (RowCallbackHandler) rs -> inserted.add(rs.getString(1)));
+        }
+        return inserted;
+    }
+
+    private int batchSize() {
+        return Math.max(1, Math.min(importProperties.getBatchSize(), MAX_ROWS_PER_STATEMENT));
+    }
+
+    private String insertSql(int rows, int batchSize) {
+        InsertStatement cached = fullBatch;
+        if (cached != null && cached.rows() == rows) {
+            return cached.sql();
+        }
+        String sql = buildInsertSql(rows);
+        if (rows == batchSize) {
+            fullBatch = new InsertStatement(rows, sql);
+        }
+        return sql;
+    }
+
+    private static String buildInsertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW_PLACEHOLDER.length() + 2) + INSERT_SUFFIX.length());
+        sql.append(INSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDER);
+        }
+        return sql.append(INSERT_SUFFIX).toString();
+    }
+
+    private static void bind(PreparedStatement ps, DealColumns deals, int from, int to) throws SQLException {
+        int index = 1;
+        for (int row = from; row < to; row++) {
+            ps.setString(index++, deals.dealId(row));
+            ps.setString(index++, deals.fromCurrency(row));
+            ps.setString(index++, deals.toCurrency(row));
+            // bound as a LocalDateTime, not a java.sql.Timestamp, so local times in a DST gap of the JVM zone are kept
+            ps.setObject(index++, deals.timestamp(row));
+            // scaled amounts become a BigDecimal only here
+            ps.setBigDecimal(index++, deals.amount(row));
+        }
+    }
+
+    private record InsertStatement(int rows, String sql) {
+    }
+}
@@ -0,0 +1,239 @@
+package com.data.warehouse.repository;
+
+import com.data.warehouse.config.ImportDatabase;
+import com.data.warehouse.models.Deal;
+import com.data.warehouse.parser.DealColumns;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * {@code COPY} path for {@link Deal}s. A chunk is streamed in the text format into the unlogged
+ * {@code deals_staging} table under a fresh load id, then moved into {@code deals} by a single
+ * {@code DELETE ... RETURNING} feeding an {@code INSERT ... SELECT}. The {@code deal_ids} trigger skips ids that
+ * are already taken, as it does for {@link DealBatchRepository}, and only the ids actually written are returned.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DealCopyRepository {
+
+    private static final String COPY =
+            "COPY deals_staging (load_id, deal_id, from_currency, to_currency, timestamp, amount) FROM STDIN";
+    private static final String MERGE =
+            "WITH loaded AS (DELETE FROM deals_staging WHERE load_id = ? "
+                    + "RETURNING deal_id, from_currency, to_currency, timestamp, amount) "
+                    + "INSERT INTO deals (deal_id, from_currency, to_currency, timestamp, amount) "
+                    + "SELECT deal_id, from_currency, to_currency, timestamp, amount FROM loaded RETURNING deal_id";
+
+    private final ImportDatabase importDatabase;
+
+    /**
+     * Must run in a transaction, so the copied rows are merged on the same connection and a failed merge
+     * leaves nothing behind in {@code deals_staging}.
+     */
+    public Set<String> copyIgnoringDuplicates(DealColumns deals) {
+        UUID loadId = UUID.randomUUID();
+        JdbcTemplate jdbcTemplate = importDatabase.getJdbcTemplate();
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> copy(connection.unwrap(PGConnection.class), loadId, deals));
+
+        Set<String> inserted = new HashSet<>(deals.size() * 2);
+        jdbcTemplate.query(MERGE, (RowCallbackHandler) rs -> inserted.add(rs.getString(1)), loadId);
+        return inserted;
+    }
+
+    private static long copy(PGConnection connection, UUID loadId, DealColumns deals) throws SQLException {
+        CopyIn copy = connection.getCopyAPI().copyIn(COPY);
+        try {
+            RowWriter out = new RowWriter(copy);
+            byte[] load = loadId.toString().getBytes(StandardCharsets.US_ASCII);
+            for (int row = 0; row < deals.size(); row++) {
+                out.bytes(load);
+                out.tab();
+                out.text(deals.dealId(row));
+                out.tab();
+                out.text(deals.fromCurrency(row));
+                out.tab();
+                out.text(deals.toCurrency(row));
+                out.tab();
+                out.timestamp(deals.timestamp(row));
+                out.tab();
+                if (deals.isScaledAmount(row)) {
+                    out.decimal(deals.amountUnits(row), deals.amountScale(row));
+                } else {
+                    out.text(deals.amount(row).toPlainString());
+                }
+                out.newLine();
+            }
+            out.flush();
+            return copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+    }
+
+    /**
+     * Writes rows in the {@code COPY} text format through a fixed buffer, escaping as the format requires.
+     */
+    private static final class RowWriter {
+
+        private static final int CAPACITY = 64 * 1024;
+        // the longest value written in one go without a capacity check: a timestamp or a long amount
+        private static final int RESERVE = 48;
+        private static final byte[] BC = " BC".getBytes(StandardCharsets.US_ASCII);
+
+        private final CopyIn copy;
+        private final byte[] buffer = new byte[CAPACITY];
+        private int length;
+
+        private RowWriter(CopyIn copy) {
+            this.copy = copy;
+        }
+
+        private void tab() throws SQLException {
+            put((byte) '\t');
+        }
+
+        private void newLine() throws SQLException {
+            put((byte) '\n');
+        }
+
+        private void bytes(byte[] value) throws SQLException {
+            for (byte b : value) {
+                put(b);
+            }
+        }
+
+        private void text(String value) throws SQLException {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    escaped(value.substring(i).getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+                escaped((byte) c);
+            }
+        }
+
+        private void escaped(byte[] value) throws SQLException {
+            for (byte b : value) {
+                escaped(b);
+            }
+        }
+
+        private void escaped(byte b) throws SQLException {
+            switch (b) {
+                case '\\' -> escape((byte) '\\');
+                case '\t' -> escape((byte) 't');
+                case '\n' -> escape((byte) 'n');
+                case '\r' -> escape((byte) 'r');
+                default -> put(b);
+            }
+        }
+
+        private void escape(byte b) throws SQLException {
+            put((byte) '\\');
+            put(b);
+        }
+
+        /**
+         * {@code yyyy-MM-dd HH:mm:ss.SSSSSS}, rounded to microseconds half up as PgJDBC binds a timestamp.
+         */
+        private void timestamp(LocalDateTime value) throws SQLException {
+            if (value.getNano() % 1000 != 0) {
+                value = value.plusNanos(500).truncatedTo(ChronoUnit.MICROS);
+            }
+            reserve();
+            int year = value.getYear();
+            digits(year > 0 ? year : 1 - year, 4);
+            buffer[length++] = '-';
+            digits(value.getMonthValue(), 2);
+            buffer[length++] = '-';
+            digits(value.getDayOfMonth(), 2);
+            buffer[length++] = ' ';
+            digits(value.getHour(), 2);
+            buffer[length++] = ':';
+            digits(value.getMinute(), 2);
+            buffer[length++] = ':';
+            digits(value.getSecond(), 2);
+            buffer[length++] = '.';
+            digits(value.getNano() / 1000, 6);
+            if (year <= 0) {
+                System.arraycopy(BC, 0, buffer, length, BC.length);
+                length += BC.length;
+            }
+        }
+
+        /**
+         * {@code units * 10^-scale} as a plain decimal.
+         */
+        private void decimal(long units, int scale) throws SQLException {
+            reserve();
+            if (units < 0) {
+                buffer[length++] = '-';
+            }
+            // negated into the non-positive range, which also holds Long.MIN_VALUE
+            long negative = units < 0 ? units : -units;
+            int digits = 1;
+            for (long rest = negative / 10; rest != 0; rest /= 10) {
+                digits++;
+            }
+            int width = Math.max(digits, scale + 1);
+            int end = length + width + (scale > 0 ? 1 : 0);
+            int pos = end;
+            for (int i = 0; i < width; i++) {
+                if (scale > 0 && i == scale) {
+                    buffer[--pos] = '.';
+                }
+                buffer[--pos] = (byte) ('0' - negative % 10);
+                negative /= 10;
+            }
+            length = end;
+        }
+
+        /** {@code value} zero-padded to at least {@code width} digits. */
+        private void digits(int value, int width) {
+            int count = 1;
+            for (int rest = value / 10; rest != 0; rest /= 10) {
+                count++;
+            }
+            int end = length + Math.max(width, count);
+            for (int pos = end - 1; pos >= length; pos--) {
+                buffer[pos] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            length = end;
+        }
+
+        private void put(byte b) throws SQLException {
+            if (length == CAPACITY) {
+                flush();
+            }
+            buffer[length++] = b;
+        }
+
+        private void reserve() throws SQLException {
+            if (length > CAPACITY - RESERVE) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            copy.writeToCopy(buffer, 0, length);
+            length = 0;
+        }
+    }
+}
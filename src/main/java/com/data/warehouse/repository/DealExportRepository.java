@@ -0,0 +1,61 @@
+package com.data.warehouse.repository;
+
+import com.data.warehouse.dto.ExportFilterDto;
+import com.data.warehouse.models.Deal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads deals for export through a server-side cursor: rows arrive {@value #FETCH_SIZE} at a time and are
+ * handed over one by one as plain objects, never entering a persistence context. PostgreSQL only keeps
+ * the cursor open inside a transaction, so callers must hold one.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DealExportRepository {
+
+    private static final int FETCH_SIZE = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void forEach(ExportFilterDto filter, Consumer<Deal> action) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, deal_id, from_currency, to_currency, timestamp, amount FROM deals WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (filter.getFromCurrency() != null) {
+            sql.append(" AND from_currency = ?");
+            args.add(filter.getFromCurrency());
+        }
+        if (filter.getToCurrency() != null) {
+            sql.append(" AND to_currency = ?");
+            args.add(filter.getToCurrency());
+        }
+        if (filter.getFrom() != null) {
+            sql.append(" AND timestamp >= ?");
+            args.add(Timestamp.valueOf(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            sql.append(" AND timestamp < ?");
+            args.add(Timestamp.valueOf(filter.getTo()));
+        }
+        sql.append(" ORDER BY timestamp, id");
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(sql.toString());
+            statement.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> action.accept(new Deal(rs.getLong(1), rs.getString(2), rs.getString(3),
+                rs.getString(4), rs.getTimestamp(5).toLocalDateTime(), rs.getBigDecimal(6))));
+    }
+}
@@ -3,10 +3,20 @@ package com.data.warehouse.repository;
 
 import com.data.warehouse.models.Deal;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.Set;
+
 @Repository
-public interface DealRepository extends JpaRepository<Deal, Long> {
-    boolean existsByDealId(String dealId);
+public interface DealRepository extends JpaRepository<Deal, Long>, JpaSpecificationExecutor<Deal> {
+
+    /**
+     * Looked up in the {@code deal_ids} registry, which holds every stored id under one index across all partitions.
+     */
+    @Query(value = "select deal_id from deal_ids where deal_id in (:dealIds)", nativeQuery = true)
+    Set<String> findExistingDealIds(@Param("dealIds") Collection<String> dealIds);
 }
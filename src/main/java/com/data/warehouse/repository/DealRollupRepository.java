@@ -0,0 +1,199 @@
+package com.data.warehouse.repository;
+
+import com.data.warehouse.config.ImportDatabase;
+import com.data.warehouse.dto.RollupDto;
+import com.data.warehouse.dto.RollupFilterDto;
+import com.data.warehouse.parser.DealColumns;
+import com.data.warehouse.utils.FixedPoint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Hourly per-pair totals in {@code deal_rollups}. Imports fold the deals they insert into the table with
+ * {@code ON CONFLICT DO UPDATE} inside the chunk's transaction on the {@link ImportDatabase}, so the rollups commit or
+ * roll back together with the rows they summarise. Scaled amounts are summed as {@code long}s and only bound as {@code NUMERIC}.
+ * Buckets are upserted in key order, which keeps concurrent imports from locking the same rows in opposite orders.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DealRollupRepository {
+
+    private static final String UPSERT =
+            "INSERT INTO deal_rollups (from_currency, to_currency, bucket, deal_count, amount_sum, amount_min, amount_max) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?) "
+                    + "ON CONFLICT (from_currency, to_currency, bucket) DO UPDATE SET "
+                    + "deal_count = deal_rollups.deal_count + EXCLUDED.deal_count, "
+                    + "amount_sum = deal_rollups.amount_sum + EXCLUDED.amount_sum, "
+                    + "amount_min = LEAST(deal_rollups.amount_min, EXCLUDED.amount_min), "
+                    + "amount_max = GREATEST(deal_rollups.amount_max, EXCLUDED.amount_max)";
+
+    private static final String REBUILD =
+            "INSERT INTO deal_rollups (from_currency, to_currency, bucket, deal_count, amount_sum, amount_min, amount_max) "
+                    + "SELECT from_currency, to_currency, date_trunc('hour', timestamp), COUNT(*), SUM(amount), MIN(amount), MAX(amount) "
+                    + "FROM deals GROUP BY from_currency, to_currency, date_trunc('hour', timestamp)";
+
+    private static final Comparator<Bucket> KEY_ORDER = Comparator.comparing(Bucket::fromCurrency)
+            .thenComparing(Bucket::toCurrency)
+            .thenComparing(Bucket::hour);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImportDatabase importDatabase;
+
+    public void add(DealColumns deals) {
+        Map<Bucket, Totals> buckets = new TreeMap<>(KEY_ORDER);
+        for (int row = 0; row < deals.size(); row++) {
+            long second = deals.epochSecond(row);
+            Bucket bucket = new Bucket(deals.fromCurrency(row), deals.toCurrency(row), second - Math.floorMod(second, 3600));
+            int first = row;
+            buckets.computeIfAbsent(bucket, key -> new Totals(deals, first)).add(deals, row);
+        }
+
+        List<Object[]> rows = new ArrayList<>(buckets.size());
+        buckets.forEach((bucket, totals) -> rows.add(new Object[]{
+                bucket.fromCurrency(), bucket.toCurrency(),
+                Timestamp.valueOf(LocalDateTime.ofEpochSecond(bucket.hour(), 0, ZoneOffset.UTC)),
+                totals.count, totals.sum(), totals.min(), totals.max()}));
+        importDatabase.getJdbcTemplate().batchUpdate(UPSERT, rows);
+    }
+
+    /**
+     * Recomputes every bucket from {@code deals}. Must run in a transaction: the table lock makes chunks that
+     * are still importing wait and apply their totals on top of the rebuilt rows, while readers keep seeing
+     * the old rollups until the rebuild commits.
+     *
+     * @return the number of buckets written
+     */
+    public int rebuild() {
+        jdbcTemplate.execute("LOCK TABLE deal_rollups IN EXCLUSIVE MODE");
+        jdbcTemplate.update("DELETE FROM deal_rollups");
+        return jdbcTemplate.update(REBUILD);
+    }
+
+    /**
+     * Totals per pair and hour or day, merged from the hourly buckets.
+     */
+    public List<RollupDto> find(RollupFilterDto filter) {
+        String period = "date_trunc('" + filter.getGranularity().name().toLowerCase(Locale.ROOT) + "', bucket)";
+        StringBuilder sql = new StringBuilder("SELECT from_currency, to_currency, ").append(period)
+                .append(", SUM(deal_count), SUM(amount_sum), MIN(amount_min), MAX(amount_max) FROM deal_rollups WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (filter.getFromCurrency() != null) {
+            sql.append(" AND from_currency = ?");
+            args.add(filter.getFromCurrency());
+        }
+        if (filter.getToCurrency() != null) {
+            sql.append(" AND to_currency = ?");
+            args.add(filter.getToCurrency());
+        }
+        if (filter.getFrom() != null) {
+            sql.append(" AND bucket >= ?");
+            args.add(Timestamp.valueOf(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            sql.append(" AND bucket < ?");
+            args.add(Timestamp.valueOf(filter.getTo()));
+        }
+        sql.append(" GROUP BY from_currency, to_currency, ").append(period)
+                .append(" ORDER BY ").append(period).append(", from_currency, to_currency");
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new RollupDto(
+                rs.getString(1), rs.getString(2), rs.getTimestamp(3).toLocalDateTime(),
+                rs.getLong(4), rs.getBigDecimal(5), rs.getBigDecimal(6), rs.getBigDecimal(7)), args.toArray());
+    }
+
+    /** {@code hour} as the UTC epoch second the hour starts at. */
+    private record Bucket(String fromCurrency, String toCurrency, long hour) {
+    }
+
+    /**
+     * Sums scaled amounts as {@code long}s while every deal of the bucket has one of the same scale and the sum
+     * does not overflow, and falls back to {@link BigDecimal} from then on. Each amount is taken as
+     * {@code deals.amount} stores it, rounded to the column's scale, so the totals match a {@link #rebuild()}.
+     */
+    private static final class Totals {
+
+        /** Scale of {@code deals.amount}. */
+        private static final int STORED_SCALE = 2;
+
+        private long count;
+        private int scale;
+        private long unitSum;
+        private long unitMin;
+        private long unitMax;
+        private BigDecimal sum;
+        private BigDecimal min;
+        private BigDecimal max;
+
+        private Totals(DealColumns deals, int first) {
+            if (isExactlyStored(deals, first)) {
+                scale = deals.amountScale(first);
+                unitMin = deals.amountUnits(first);
+                unitMax = deals.amountUnits(first);
+            } else {
+                scale = -1;
+                sum = BigDecimal.ZERO;
+                min = stored(deals, first);
+                max = stored(deals, first);
+            }
+        }
+
+        private Totals add(DealColumns deals, int row) {
+            count++;
+            if (scale >= 0 && isExactlyStored(deals, row) && deals.amountScale(row) == scale) {
+                long units = deals.amountUnits(row);
+                try {
+                    unitSum = Math.addExact(unitSum, units);
+                    unitMin = Math.min(unitMin, units);
+                    unitMax = Math.max(unitMax, units);
+                    return this;
+                } catch (ArithmeticException e) {
+                    // overflow: carry on in BigDecimal
+                }
+            }
+            if (scale >= 0) {
+                sum = FixedPoint.toBigDecimal(unitSum, scale);
+                min = FixedPoint.toBigDecimal(unitMin, scale);
+                max = FixedPoint.toBigDecimal(unitMax, scale);
+                scale = -1;
+            }
+            BigDecimal amount = stored(deals, row);
+            sum = sum.add(amount);
+            min = min.min(amount);
+            max = max.max(amount);
+            return this;
+        }
+
+        private static boolean isExactlyStored(DealColumns deals, int row) {
+            return deals.isScaledAmount(row) && deals.amountScale(row) <= STORED_SCALE;
+        }
+
+        private static BigDecimal stored(DealColumns deals, int row) {
+            return deals.amount(row).setScale(STORED_SCALE, RoundingMode.HALF_UP);
+        }
+
+        private BigDecimal sum() {
+            return scale >= 0 ? FixedPoint.toBigDecimal(unitSum, scale) : sum;
+        }
+
+        private BigDecimal min() {
+            return scale >= 0 ? FixedPoint.toBigDecimal(unitMin, scale) : min;
+        }
+
+        private BigDecimal max() {
+            return scale >= 0 ? FixedPoint.toBigDecimal(unitMax, scale) : max;
+        }
+    }
+}
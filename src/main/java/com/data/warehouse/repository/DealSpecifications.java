@@ -0,0 +1,52 @@
+package com.data.warehouse.repository;
+
+import com.data.warehouse.models.Deal;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Filters for {@link DealRepository#findBy}, shaped to use the {@code idx_deals_timestamp_id} and
+ * {@code idx_deals_pair_timestamp_id} indexes that the Flyway migrations {@code V1__baseline.sql} and
+ * {@code V2__partition_deals_by_month.sql} create on {@code deals}.
+ */
+public final class DealSpecifications {
+
+    private DealSpecifications() {
+    }
+
+    public static Specification<Deal> fromCurrency(String code) {
+        return (root, query, cb) -> cb.equal(root.get("fromCurrency"), code);
+    }
+
+    public static Specification<Deal> toCurrency(String code) {
+        return (root, query, cb) -> cb.equal(root.get("toCurrency"), code);
+    }
+
+    public static Specification<Deal> timestampFrom(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("timestamp"), from);
+    }
+
+    public static Specification<Deal> timestampBefore(LocalDateTime to) {
+        return (root, query, cb) -> cb.lessThan(root.get("timestamp"), to);
+    }
+
+    public static Specification<Deal> amountAtLeast(BigDecimal min) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("amount"), min);
+    }
+
+    public static Specification<Deal> amountAtMost(BigDecimal max) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("amount"), max);
+    }
+
+    /**
+     * Rows after {@code (timestamp, id)} in {@code timestamp, id} order. Written as
+     * {@code timestamp >= t AND (timestamp > t OR id > i)} so the index scan can start at {@code t}.
+     */
+    public static Specification<Deal> after(LocalDateTime timestamp, long id) {
+        return (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.get("timestamp"), timestamp),
+                cb.or(cb.greaterThan(root.get("timestamp"), timestamp), cb.greaterThan(root.get("id"), id)));
+    }
+}
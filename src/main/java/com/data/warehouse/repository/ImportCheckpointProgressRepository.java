@@ -0,0 +1,29 @@
+package com.data.warehouse.repository;
+
+import com.data.warehouse.config.ImportDatabase;
+import com.data.warehouse.models.ImportCheckpoint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Progress of an {@link ImportCheckpoint}, written inside the chunk transaction it records. Plain JDBC on the
+ * {@link ImportDatabase}, whose pool need not be the one behind JPA, so the checkpoint commits with its chunk.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ImportCheckpointProgressRepository {
+
+    private static final String ADVANCE = "UPDATE import_checkpoints SET rows_committed = ?, saved = ?, duplicates = ?,"
+            + " invalid = ?, updated_at = ? WHERE job_id = ?";
+
+    private final ImportDatabase importDatabase;
+
+    public int advance(String jobId, long rows, long saved, long duplicates, long invalid, Instant updatedAt) {
+        return importDatabase.getJdbcTemplate().update(ADVANCE, rows, saved, duplicates, invalid,
+                OffsetDateTime.ofInstant(updatedAt, ZoneOffset.UTC), jobId);
+    }
+}
@@ -0,0 +1,27 @@
+package com.data.warehouse.repository;
+
+import com.data.warehouse.models.ImportCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface ImportCheckpointRepository extends JpaRepository<ImportCheckpoint, String> {
+
+    @Modifying
+    @Transactional
+    @Query("update ImportCheckpoint c set c.status = :status, c.updatedAt = :updatedAt where c.jobId = :jobId")
+    int updateStatus(@Param("jobId") String jobId, @Param("status") ImportCheckpoint.Status status,
+                     @Param("updatedAt") Instant updatedAt);
+
+    @Modifying
+    @Transactional
+    @Query("update ImportCheckpoint c set c.sourcePath = :sourcePath, c.updatedAt = :updatedAt where c.jobId = :jobId")
+    int updateSourcePath(@Param("jobId") String jobId, @Param("sourcePath") String sourcePath,
+                         @Param("updatedAt") Instant updatedAt);
+}
@@ -0,0 +1,237 @@
+package com.data.warehouse.services;
+
+import com.data.warehouse.config.ImportProperties;
+import com.data.warehouse.config.MessageResolver;
+import com.data.warehouse.dto.BatchResultsDto;
+import com.data.warehouse.dto.FileResultDto;
+import com.data.warehouse.dto.ImportLoader;
+import com.data.warehouse.dto.ResultsDto;
+import com.data.warehouse.utils.Compression;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Imports several uploaded files, or the entries of uploaded ZIP archives, as one batch. Up to
+ * {@code warehouse.import.batch.parallelism} files are imported at a time, shared by all batches. The files
+ * share one set of dealIds, so an id that appears in two files of the batch is saved once; which file keeps it
+ * depends on which gets there first.
+ */
+@Slf4j
+@Service
+public class BatchImportService {
+
+    private static final Set<String> ZIP_CONTENT_TYPES = Set.of("application/zip", "application/x-zip-compressed");
+
+    private final DealService dealService;
+    private final MessageResolver messageSourceResolver;
+    private final ImportProperties importProperties;
+    private final ExecutorService workers;
+
+    public BatchImportService(DealService dealService, MessageResolver messageSourceResolver,
+                              ImportProperties importProperties) {
+        this.dealService = dealService;
+        this.messageSourceResolver = messageSourceResolver;
+        this.importProperties = importProperties;
+        this.workers = Executors.newFixedThreadPool(Math.max(1, importProperties.getBatch().getParallelism()),
+                ImportPipeline.daemonThreadFactory("deal-batch-"));
+    }
+
+    public BatchResultsDto importBatch(List<MultipartFile> files) throws IOException {
+        return importBatch(files, null);
+    }
+
+    /**
+     * @param loader {@code null} for {@code warehouse.import.loader}
+     */
+    public BatchResultsDto importBatch(List<MultipartFile> files, ImportLoader loader) throws IOException {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException(messageSourceResolver.get("error.batch.empty"));
+        }
+
+        List<Path> spooled = new ArrayList<>();
+        List<ZipFile> archives = new ArrayList<>();
+        try {
+            List<BatchEntry> entries = new ArrayList<>();
+            for (MultipartFile file : files) {
+                if (isZip(file)) {
+                    addArchiveEntries(file, entries, spooled, archives);
+                } else {
+                    entries.add(uploadEntry(file));
+                }
+                checkSize(entries);
+            }
+
+            ConcurrentMap<String, Object> batchDealIds = new ConcurrentHashMap<>();
+            List<Future<FileResultDto>> pending = new ArrayList<>(entries.size());
+            for (BatchEntry entry : entries) {
+                pending.add(workers.submit(() -> importEntry(entry, batchDealIds, loader)));
+            }
+            List<FileResultDto> results = new ArrayList<>(entries.size());
+            for (Future<FileResultDto> result : pending) {
+                results.add(await(result, pending));
+            }
+            return new BatchResultsDto(results, total(results));
+        } finally {
+            for (ZipFile archive : archives) {
+                archive.close();
+            }
+            for (Path file : spooled) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private BatchEntry uploadEntry(MultipartFile file) {
+        try {
+            dealService.checkUpload(file);
+        } catch (IllegalArgumentException e) {
+            return BatchEntry.failed(file.getOriginalFilename(), e.getMessage());
+        }
+        return new BatchEntry(file.getOriginalFilename(), file::getInputStream, null);
+    }
+
+    /**
+     * Spools the archive to disk, since entries can only be read in parallel from a {@link ZipFile}.
+     */
+    private Path spoolDirectory() throws IOException {
+        String spoolDir = importProperties.getJobs().getSpoolDir();
+        return spoolDir == null
+                ? Path.of(System.getProperty("java.io.tmpdir"))
+                : Files.createDirectories(Path.of(spoolDir));
+    }
+
+    private void addArchiveEntries(MultipartFile file, List<BatchEntry> entries, List<Path> spooled,
+                                   List<ZipFile> archives) throws IOException {
+        String archiveName = file.getOriginalFilename();
+        Path spool = Files.createTempFile(spoolDirectory(), "deal-batch-", ".zip");
+        spooled.add(spool);
+        file.transferTo(spool);
+
+        ZipFile archive;
+        try {
+            archive = new ZipFile(spool.toFile());
+        } catch (ZipException e) {
+            entries.add(BatchEntry.failed(archiveName, messageSourceResolver.get("error.batch.zip.invalid")));
+            return;
+        }
+        archives.add(archive);
+
+        archive.stream()
+                .filter(entry -> !entry.isDirectory() && !entry.getName().startsWith("__MACOSX/"))
+                .forEach(entry -> entries.add(archiveEntry(archiveName, archive, entry)));
+    }
+
+    private BatchEntry archiveEntry(String archiveName, ZipFile archive, ZipEntry entry) {
+        String name = archiveName + "!/" + entry.getName();
+        if (!Compression.stripExtension(entry.getName()).toLowerCase(Locale.ROOT).endsWith(".csv")) {
+            return BatchEntry.failed(name, messageSourceResolver.get("error.csv.only"));
+        }
+        return new BatchEntry(name, () -> archive.getInputStream(entry), null);
+    }
+
+    private void checkSize(List<BatchEntry> entries) {
+        int maxFiles = importProperties.getBatch().getMaxFiles();
+        if (entries.size() > maxFiles) {
+            throw new IllegalArgumentException(messageSourceResolver.get("error.batch.too.many", new Object[]{maxFiles}));
+        }
+    }
+
+    private FileResultDto importEntry(BatchEntry entry, ConcurrentMap<String, Object> batchDealIds, ImportLoader loader) {
+        if (entry.error() != null) {
+            return new FileResultDto(entry.name(), null, entry.error());
+        }
+        ImportContext context = ImportContext.builder().batchDealIds(batchDealIds).loader(loader).build();
+        try (InputStream in = entry.open().call()) {
+            return new FileResultDto(entry.name(), dealService.importStream(in, context), null);
+        } catch (IllegalArgumentException e) {
+            return new FileResultDto(entry.name(), null, e.getMessage());
+        } catch (Exception e) {
+            log.error("Import of {} failed", entry.name(), e);
+            return new FileResultDto(entry.name(), null, messageSourceResolver.get("error.import.failed"));
+        }
+    }
+
+    private static FileResultDto await(Future<FileResultDto> result, List<Future<FileResultDto>> pending) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            pending.forEach(other -> other.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while importing the batch", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private ResultsDto total(List<FileResultDto> results) {
+        int maxErrors = importProperties.getMaxErrorDetails();
+        int saved = 0;
+        int duplicates = 0;
+        int invalid = 0;
+        List<String> errors = new ArrayList<>();
+        Map<String, Long> errorCounts = new LinkedHashMap<>();
+        boolean truncated = false;
+
+        for (FileResultDto file : results) {
+            ResultsDto result = file.getResult();
+            if (result == null) {
+                continue;
+            }
+            saved += result.getSaved();
+            duplicates += result.getDuplicates();
+            invalid += result.getInvalid();
+            result.getErrorCounts().forEach((reason, count) -> errorCounts.merge(reason, count, Long::sum));
+            truncated |= result.isErrorsTruncated();
+            for (String error : result.getErrors()) {
+                if (errors.size() == maxErrors) {
+                    truncated = true;
+                    break;
+                }
+                errors.add(file.getFile() + ": " + error);
+            }
+        }
+        return new ResultsDto(saved, duplicates, invalid, errors, errorCounts, truncated);
+    }
+
+    @PreDestroy
+    void stop() {
+        workers.shutdownNow();
+    }
+
+    private record BatchEntry(String name, Callable<InputStream> open, String error) {
+
+        static BatchEntry failed(String name, String error) {
+            return new BatchEntry(name, null, error);
+        }
+    }
+
+    private static boolean isZip(MultipartFile file) {
+        String contentType = file.getContentType();
+        String fileName = file.getOriginalFilename();
+        return (contentType != null && ZIP_CONTENT_TYPES.contains(contentType.toLowerCase(Locale.ROOT)))
+                || (fileName != null && fileName.toLowerCase(Locale.ROOT).endsWith(".zip"));
+    }
+}
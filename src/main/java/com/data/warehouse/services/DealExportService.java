@@ -0,0 +1,155 @@
+package com.data.warehouse.services;
+
+import com.data.warehouse.dto.ExportFilterDto;
+import com.data.warehouse.dto.ExportFormat;
+import com.data.warehouse.models.Deal;
+import com.data.warehouse.parser.DealRowParser;
+import com.data.warehouse.repository.DealExportRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes deals to a stream as CSV, in the layout the import reads, or as NDJSON. Rows go out as the
+ * cursor yields them, so memory use stays flat however many deals match.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DealExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final DealExportRepository dealExportRepository;
+
+    /**
+     * @return the number of deals written
+     */
+    @Transactional(readOnly = true)
+    public long export(ExportFilterDto filter, OutputStream out) throws IOException {
+        if (filter.getFromCurrency() != null) {
+            filter.setFromCurrency(filter.getFromCurrency().toUpperCase(Locale.ROOT));
+        }
+        if (filter.getToCurrency() != null) {
+            filter.setToCurrency(filter.getToCurrency().toUpperCase(Locale.ROOT));
+        }
+
+        long started = System.nanoTime();
+        OutputStream target = filter.isGzip() ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+             DealWriter deals = filter.getFormat() == ExportFormat.NDJSON ? new NdjsonWriter(writer) : new CsvWriter(writer)) {
+            dealExportRepository.forEach(filter, deal -> {
+                try {
+                    deals.write(deal);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.info("Exported {} deals as {} in {} ms", deals.count(), filter.getFormat(),
+                    (System.nanoTime() - started) / 1_000_000);
+            return deals.count();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private abstract static class DealWriter implements AutoCloseable {
+
+        private long count;
+
+        void write(Deal deal) throws IOException {
+            append(deal);
+            count++;
+        }
+
+        long count() {
+            return count;
+        }
+
+        abstract void append(Deal deal) throws IOException;
+
+        @Override
+        public abstract void close() throws IOException;
+    }
+
+    private static final class CsvWriter extends DealWriter {
+
+        private final Writer writer;
+
+        CsvWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(DealRowParser.HEADER);
+            writer.write('\n');
+        }
+
+        @Override
+        void append(Deal deal) throws IOException {
+            writer.write(csvField(deal.getDealId()));
+            writer.write(',');
+            writer.write(deal.getFromCurrency());
+            writer.write(',');
+            writer.write(deal.getToCurrency());
+            writer.write(',');
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(deal.getTimestamp(), writer);
+            writer.write(',');
+            writer.write(deal.getAmount().toPlainString());
+            writer.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+
+        private static String csvField(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static final class NdjsonWriter extends DealWriter {
+
+        private final JsonGenerator json;
+
+        NdjsonWriter(Writer writer) throws IOException {
+            json = JSON.createGenerator(writer);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+        }
+
+        @Override
+        void append(Deal deal) throws IOException {
+            json.writeStartObject();
+            json.writeStringField("dealId", deal.getDealId());
+            json.writeStringField("fromCurrency", deal.getFromCurrency());
+            json.writeStringField("toCurrency", deal.getToCurrency());
+            json.writeStringField("timestamp", DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(deal.getTimestamp()));
+            json.writeFieldName("amount");
+            json.writeNumber(deal.getAmount().toPlainString());
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            json.close();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.data.warehouse.services;
+
+import com.data.warehouse.config.ImportProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Submits every {@code *.csv} (or {@code *.csv.gz}, {@code *.csv.zst}) dropped into the watched directory as an import job, then moves it to
+ * the processed or failed directory. A file is picked up once it has not been modified for one poll
+ * interval, so files still being copied in are left alone. Files rejected because the job queue is
+ * full stay in place and are retried on the next scan. A failed job's checkpoint is pointed at the file in the
+ * failed directory, where the job can be resumed.
+ */
+@Component
+@ConditionalOnProperty(prefix = "warehouse.import.local.watch", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class DealFileWatcher {
+
+    private final ImportJobService importJobService;
+    private final LocalImportSource localImportSource;
+    private final ImportProperties importProperties;
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+
+    private Path incoming;
+    private Path processed;
+    private Path failed;
+    private WatchService watchService;
+    private Thread thread;
+
+    @PostConstruct
+    void start() throws IOException {
+        ImportProperties.Watch watch = importProperties.getLocal().getWatch();
+        Path base = localImportSource.baseDirectory();
+        incoming = Files.createDirectories(base.resolve(watch.getDir()));
+        processed = Files.createDirectories(base.resolve(watch.getProcessedDir()));
+        failed = Files.createDirectories(base.resolve(watch.getFailedDir()));
+
+        watchService = FileSystems.getDefault().newWatchService();
+        incoming.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        thread = ImportPipeline.daemonThreadFactory("deal-file-watcher-").newThread(this::watch);
+        thread.start();
+        log.info("Watching {} for deal files", incoming);
+    }
+
+    private void watch() {
+        long interval = importProperties.getLocal().getWatch().getPollInterval().toMillis();
+        while (!Thread.currentThread().isInterrupted()) {
+            scan(interval);
+            try {
+                WatchKey key = watchService.poll(interval, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+        }
+    }
+
+    private void scan(long settleMillis) {
+        Instant settled = Instant.now().minusMillis(settleMillis);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(incoming, "*.{csv,csv.gz,csv.zst}")) {
+            for (Path file : files) {
+                if (!inFlight.contains(file) && Files.isRegularFile(file)
+                        && Files.getLastModifiedTime(file).toInstant().isBefore(settled)) {
+                    submit(file);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Could not scan {}", incoming, e);
+        }
+    }
+
+    private void submit(Path file) {
+        inFlight.add(file);
+        try {
+            ImportJob job = importJobService.submit(file, finished -> moveAway(file, finished));
+            log.info("Submitted {} as import job {}", file.getFileName(), job.getId());
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(file);
+            log.debug("Import queue full, {} will be retried", file.getFileName());
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not submit {}", file, e);
+            moveAway(file, null);
+        }
+    }
+
+    private void moveAway(Path file, ImportJob job) {
+        boolean completed = job != null && job.getStatus() == ImportJob.Status.COMPLETED;
+        String prefix = job == null ? "" : job.getId() + "-";
+        Path target = (completed ? processed : failed).resolve(prefix + file.getFileName());
+        try {
+            if (job == null) {
+                Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                // a failed job's checkpoint follows the file, so the job can be resumed from there
+                importJobService.moveSource(job.getId(), file, target);
+            }
+            inFlight.remove(file);
+        } catch (IOException | RuntimeException e) {
+            // left marked in flight so it is not imported again on every scan
+            log.error("Could not move {} to {}", file, target, e);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        if (thread != null) {
+            thread.interrupt();
+        }
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+}
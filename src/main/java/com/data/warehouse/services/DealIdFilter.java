@@ -0,0 +1,176 @@
+package com.data.warehouse.services;
+
+import com.data.warehouse.config.ImportProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter over every stored dealId, so ids that are certainly new skip the database lookup.
+ * It is filled from the {@code deal_ids} table in the background after startup and fed with every id
+ * an import inserts; until the initial scan has finished, every id counts as a possible hit.
+ * A false negative is impossible for ids inserted through this instance, and ids written by other
+ * instances are still skipped by the {@code deal_ids} registry on insert, so the filter never changes counts.
+ */
+@Component
+@Slf4j
+public class DealIdFilter {
+
+    private static final int WARM_FETCH_SIZE = 10_000;
+    private static final double LN2 = Math.log(2);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashes;
+    private final LongAdder insertions = new LongAdder();
+    private final Counter negatives;
+    private final Counter probableHits;
+    private final Counter falsePositives;
+
+    private volatile boolean ready;
+
+    public DealIdFilter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                        ImportProperties importProperties, MeterRegistry meterRegistry) {
+        ImportProperties.IdFilter properties = importProperties.getIdFilter();
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        long expected = Math.max(1, properties.getExpectedIds());
+        double rate = Math.min(0.5, Math.max(1e-9, properties.getFalsePositiveRate()));
+        long wordCount = properties.isEnabled()
+                ? Math.min(Integer.MAX_VALUE, (long) Math.ceil(-expected * Math.log(rate) / (LN2 * LN2) / Long.SIZE))
+                : 0;
+        this.words = new AtomicLongArray((int) wordCount);
+        this.bitCount = wordCount * Long.SIZE;
+        this.hashes = wordCount == 0 ? 0 : Math.max(1, (int) Math.round((double) bitCount / expected * LN2));
+
+        this.negatives = Counter.builder("deals.idfilter.checks").tag("result", "negative")
+                .description("dealIds the filter ruled out, skipping the database lookup").register(meterRegistry);
+        this.probableHits = Counter.builder("deals.idfilter.checks").tag("result", "probable")
+                .description("dealIds the filter sent on to the database lookup").register(meterRegistry);
+        this.falsePositives = Counter.builder("deals.idfilter.false.positives")
+                .description("Probable hits that turned out not to be stored").register(meterRegistry);
+        Gauge.builder("deals.idfilter.ready", this, filter -> filter.ready ? 1 : 0).register(meterRegistry);
+        Gauge.builder("deals.idfilter.size", this, filter -> filter.bitCount / 8.0).baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("deals.idfilter.expected.fpp", this, DealIdFilter::expectedFalsePositiveRate)
+                .description("False-positive rate expected at the current number of insertions").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void warmInBackground() {
+        if (isEnabled()) {
+            ImportPipeline.daemonThreadFactory("deal-id-filter-").newThread(this::warm).start();
+        }
+    }
+
+    /**
+     * Adds every stored dealId and marks the filter ready; on failure it stays out of the way.
+     */
+    public void warm() {
+        if (!isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            readOnlyTransaction.executeWithoutResult(tx -> jdbcTemplate.query(con -> {
+                PreparedStatement statement = con.prepareStatement("SELECT deal_id FROM deal_ids");
+                statement.setFetchSize(WARM_FETCH_SIZE);
+                return statement;
+            }, (RowCallbackHandler) rs -> add(rs.getString(1))));
+            ready = true;
+            log.info("DealId filter warmed with {} ids in {} ms ({} MB, {} hashes)", insertions.sum(),
+                    (System.nanoTime() - start) / 1_000_000, bitCount / 8 / (1024 * 1024), hashes);
+        } catch (RuntimeException e) {
+            log.error("Could not warm the dealId filter, every id will be looked up in the database", e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return bitCount > 0;
+    }
+
+    /**
+     * Whether negative answers can be trusted yet.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return false only if the id is certainly not stored
+     */
+    public boolean mightContain(String dealId) {
+        if (!ready) {
+            return true;
+        }
+        long h1 = hash(dealId);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                negatives.increment();
+                return false;
+            }
+        }
+        probableHits.increment();
+        return true;
+    }
+
+    public void add(String dealId) {
+        if (!isEnabled()) {
+            return;
+        }
+        long h1 = hash(dealId);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            words.accumulateAndGet((int) (bit >>> 6), 1L << bit, (word, mask) -> word | mask);
+        }
+        insertions.increment();
+    }
+
+    public void recordFalsePositives(int count) {
+        falsePositives.increment(count);
+    }
+
+    double expectedFalsePositiveRate() {
+        if (!isEnabled()) {
+            return 1.0;
+        }
+        return Math.pow(1 - Math.exp(-(double) hashes * insertions.sum() / bitCount), hashes);
+    }
+
+    /** FNV-1a over the UTF-16 chars, finished with the murmur3 mixer. */
+    private static long hash(String value) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,102 @@
+package com.data.warehouse.services;
+
+import com.data.warehouse.config.MessageResolver;
+import com.data.warehouse.dto.DealFilterDto;
+import com.data.warehouse.dto.DealPageDto;
+import com.data.warehouse.models.Deal;
+import com.data.warehouse.repository.DealRepository;
+import com.data.warehouse.repository.DealSpecifications;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Keyset-paginated reads over stored deals, ordered by {@code (timestamp, id)}. Each page continues
+ * strictly after the last row of the previous one, so the cost of a page does not grow with its depth.
+ */
+@Service
+@RequiredArgsConstructor
+public class DealQueryService {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    private static final Sort ORDER = Sort.by("timestamp", "id");
+
+    private final DealRepository dealRepository;
+    private final MessageResolver messageSourceResolver;
+
+    @Transactional(readOnly = true)
+    public DealPageDto find(DealFilterDto filter) {
+        int limit = filter.getLimit() == null ? DEFAULT_LIMIT : filter.getLimit();
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw invalid("error.query.limit", MAX_LIMIT);
+        }
+
+        List<Deal> rows = dealRepository.findBy(specification(filter),
+                query -> query.sortBy(ORDER).limit(limit + 1).all());
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = new ArrayList<>(rows.subList(0, limit));
+            nextCursor = cursor(rows.get(limit - 1));
+        }
+        return new DealPageDto(rows, nextCursor);
+    }
+
+    private Specification<Deal> specification(DealFilterDto filter) {
+        List<Specification<Deal>> parts = new ArrayList<>();
+        if (filter.getFromCurrency() != null) {
+            parts.add(DealSpecifications.fromCurrency(filter.getFromCurrency().toUpperCase(Locale.ROOT)));
+        }
+        if (filter.getToCurrency() != null) {
+            parts.add(DealSpecifications.toCurrency(filter.getToCurrency().toUpperCase(Locale.ROOT)));
+        }
+        if (filter.getFrom() != null) {
+            parts.add(DealSpecifications.timestampFrom(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            parts.add(DealSpecifications.timestampBefore(filter.getTo()));
+        }
+        if (filter.getMinAmount() != null) {
+            parts.add(DealSpecifications.amountAtLeast(filter.getMinAmount()));
+        }
+        if (filter.getMaxAmount() != null) {
+            parts.add(DealSpecifications.amountAtMost(filter.getMaxAmount()));
+        }
+        if (filter.getAfter() != null) {
+            parts.add(after(filter.getAfter()));
+        }
+        return Specification.allOf(parts);
+    }
+
+    private static String cursor(Deal last) {
+        String key = last.getTimestamp() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Specification<Deal> after(String cursor) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = key.indexOf('|');
+            return DealSpecifications.after(
+                    LocalDateTime.parse(key.substring(0, separator)), Long.parseLong(key.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw invalid("error.query.cursor");
+        }
+    }
+
+    private IllegalArgumentException invalid(String code, Object... args) {
+        return new IllegalArgumentException(messageSourceResolver.get(code, args));
+    }
+}
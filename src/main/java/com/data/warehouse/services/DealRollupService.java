@@ -0,0 +1,47 @@
+package com.data.warehouse.services;
+
+import com.data.warehouse.dto.RollupDto;
+import com.data.warehouse.dto.RollupFilterDto;
+import com.data.warehouse.dto.RollupGranularity;
+import com.data.warehouse.repository.DealRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads of the per-pair rollups, and their rebuild from the base table for when the incremental
+ * updates were switched off or the table drifted.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DealRollupService {
+
+    private final DealRollupRepository dealRollupRepository;
+
+    @Transactional(readOnly = true)
+    public List<RollupDto> find(RollupFilterDto filter) {
+        if (filter.getGranularity() == null) {
+            filter.setGranularity(RollupGranularity.DAY);
+        }
+        if (filter.getFromCurrency() != null) {
+            filter.setFromCurrency(filter.getFromCurrency().toUpperCase(Locale.ROOT));
+        }
+        if (filter.getToCurrency() != null) {
+            filter.setToCurrency(filter.getToCurrency().toUpperCase(Locale.ROOT));
+        }
+        return dealRollupRepository.find(filter);
+    }
+
+    @Transactional
+    public int rebuild() {
+        long started = System.nanoTime();
+        int buckets = dealRollupRepository.rebuild();
+        log.info("Rebuilt {} deal rollup buckets in {} ms", buckets, (System.nanoTime() - started) / 1_000_000);
+        return buckets;
+    }
+}
@@ -1,27 +1,49 @@
 package com.data.warehouse.services;
 
+import com.data.warehouse.config.ImportDatabase;
+import com.data.warehouse.config.ImportProperties;
 import com.data.warehouse.config.MessageResolver;
 import com.data.warehouse.dto.DealsDto;
+import com.data.warehouse.dto.ImportLoader;
 import com.data.warehouse.dto.ResultsDto;
 import com.data.warehouse.models.Deal;
+import com.data.warehouse.models.ImportCheckpoint;
+import com.data.warehouse.parser.DealColumns;
+import com.data.warehouse.parser.DealRowParser;
+import com.data.warehouse.parser.MalformedRowException;
+import com.data.warehouse.parser.RowChunk;
+import com.data.warehouse.parser.RowChunkReader;
+import com.data.warehouse.repository.DealBatchRepository;
+import com.data.warehouse.repository.DealCopyRepository;
+import com.data.warehouse.repository.DealRollupRepository;
 import com.data.warehouse.repository.DealRepository;
+import com.data.warehouse.repository.ImportCheckpointProgressRepository;
+import com.data.warehouse.utils.Compression;
+import com.data.warehouse.utils.MappedFileInputStream;
 import com.data.warehouse.validator.DealValidator;
-import com.opencsv.CSVParser;
+import com.data.warehouse.validator.RejectionReason;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.MessageSource;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import com.opencsv.bean.CsvToBean;
-import com.opencsv.bean.CsvToBeanBuilder;
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.bean.HeaderColumnNameMappingStrategyBuilder;
+import com.opencsv.bean.MappingStrategy;
+import com.opencsv.exceptions.CsvException;
 import org.springframework.web.multipart.MultipartFile;
 
 
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 
 
 @Service
@@ -31,16 +53,53 @@ public class DealService {
 
 
     private final DealRepository dealRepository;
+    private final DealBatchRepository dealBatchRepository;
+    private final DealCopyRepository dealCopyRepository;
+    private final DealRollupRepository dealRollupRepository;
     private final DealValidator validator;
     private final MessageResolver messageSourceResolver;
+    private final ImportProperties importProperties;
+    private final ImportPipeline pipeline;
+    private final ImportMetrics importMetrics;
+    private final ImportCheckpointProgressRepository checkpointProgress;
+    private final ImportDatabase importDatabase;
+    private final DealIdFilter dealIdFilter;
+    private final PartitionManager partitionManager;
 
 
     public ResultsDto importCsv(MultipartFile file) throws IOException {
+        return importCsv(file, null);
+    }
+
+    /**
+     * @param loader {@code null} for {@code warehouse.import.loader}
+     */
+    public ResultsDto importCsv(MultipartFile file, ImportLoader loader) throws IOException {
+        checkUpload(file);
+
+        try (InputStream in = file.getInputStream()) {
+            return importStream(in, ImportContext.builder().loader(loader).build());
+        }
+    }
+
+    public ResultsDto importFile(Path file) throws IOException {
+        return importFile(file, ImportContext.defaults());
+    }
 
+    public ResultsDto importFile(Path file, ImportLoader loader) throws IOException {
+        return importFile(file, ImportContext.builder().loader(loader).build());
+    }
 
-        int successCount = 0, duplicateCount = 0, invalidCount = 0;
-        List<String> errorMessages = new ArrayList<>();
+    /**
+     * Imports a file on the server's disk through a memory mapping, skipping the servlet upload copy.
+     */
+    public ResultsDto importFile(Path file, ImportContext context) throws IOException {
+        try (InputStream in = MappedFileInputStream.open(file)) {
+            return importStream(in, context);
+        }
+    }
 
+    public void checkUpload(MultipartFile file) {
         if (file.isEmpty()) {
             log.warn(messageSourceResolver.get("error.csv.empty"));
             throw new IllegalArgumentException(messageSourceResolver.get("error.csv.empty"));
@@ -49,61 +108,369 @@ public class DealService {
 
         String contentType = file.getContentType();
         String fileName = file.getOriginalFilename();
+        String csvName = fileName == null ? null : Compression.stripExtension(fileName);
+        boolean compressedName = csvName != null && !csvName.equals(fileName);
 
-        if (contentType == null || (!contentType.equals("text/csv") && !contentType.equals("application/vnd.ms-excel"))
-                || (fileName != null && !fileName.toLowerCase().endsWith(".csv"))) {
+        boolean acceptedType = contentType != null && (contentType.equals("text/csv")
+                || contentType.equals("application/vnd.ms-excel")
+                || Compression.isCompressedType(contentType)
+                || (compressedName && contentType.equals("application/octet-stream")));
+        if (!acceptedType || (csvName != null && !csvName.toLowerCase().endsWith(".csv"))) {
             log.warn(messageSourceResolver.get("error.csv.only"));
             throw new IllegalArgumentException(messageSourceResolver.get("error.csv.only"));
         }
+    }
 
-        try (Reader reader = new InputStreamReader(file.getInputStream())) {
-            CsvToBean<DealsDto> csvToBean = new CsvToBeanBuilder<DealsDto>(reader)
-                    .withType(DealsDto.class)
-                    .withIgnoreLeadingWhiteSpace(true)
-                    .build();
+    public ResultsDto importStream(InputStream in) {
+        return importStream(in, ImportContext.defaults());
+    }
 
+    /**
+     * Streams the CSV through the {@link ImportPipeline}: the reader thread cuts {@code chunkSize} rows
+     * at a time, workers parse and validate them, and this thread resolves duplicates and persists each
+     * chunk in file order, one transaction per chunk. Only a bounded number of chunks is ever held in memory.
+     * <p>
+     * Files with exactly the {@link DealRowParser#HEADER} layout are parsed from raw bytes; any other
+     * header (reordered or differently cased columns) goes through the generic OpenCSV binding.
+     * Gzip and zstd input is decompressed on the fly.
+     */
+    public ResultsDto importStream(InputStream in, ImportContext context) {
+        int chunkSize = Math.max(1, importProperties.getChunkSize());
+        RowChunkReader rowReader = new RowChunkReader(parsing(() -> Compression.decompressing(in)), chunkSize);
+        byte[] header = parsing(rowReader::readHeader);
 
-            List<DealsDto> dtoList;
+        if (DealRowParser.isFixedLayout(header)) {
+            return run(() -> parsing(rowReader::next), this::validateRows, context);
+        }
+
+        log.debug("CSV header does not match the fixed layout, using the generic CSV binding.");
+        CSVReader csvReader = new CSVReaderBuilder(new InputStreamReader(rowReader.replay(), StandardCharsets.UTF_8))
+                .withCSVParser(new CSVParserBuilder().withIgnoreLeadingWhiteSpace(true).build())
+                .build();
+        MappingStrategy<DealsDto> mappingStrategy = new HeaderColumnNameMappingStrategyBuilder<DealsDto>().build();
+        mappingStrategy.setType(DealsDto.class);
+        parsing(() -> {
+            mappingStrategy.captureHeader(csvReader);
+            return null;
+        });
+        return run(() -> readChunk(csvReader, chunkSize), lines -> validateChunk(lines, mappingStrategy), context);
+    }
 
-            try {
-                dtoList = csvToBean.parse();
-            } catch (RuntimeException e) {
-                log.error("Error parsing CSV file", e);
-                throw new IllegalArgumentException(messageSourceResolver.get("error.csv.invalid.form") + e.getMessage(), e);
+    private <C> ResultsDto run(ImportPipeline.ChunkReader<C> reader, Function<C, ValidatedChunk> validate,
+                               ImportContext context) {
+        ImportMetrics.Recorder metrics = importMetrics.recorder(context.getJobId());
+        ImportState state = new ImportState(
+                new ImportErrors(importProperties.getMaxErrorDetails(), context.getErrorReport()), metrics,
+                context.getBatchDealIds(), context.getLoader() == null ? importProperties.getLoader() : context.getLoader());
+        ImportCheckpoint checkpoint = context.getCheckpoint();
+        if (checkpoint != null) {
+            state.resumeAfter = checkpoint.getRowsCommitted();
+            state.successCount = Math.toIntExact(checkpoint.getSaved());
+            state.duplicateCount = Math.toIntExact(checkpoint.getDuplicates());
+            state.invalidCount = Math.toIntExact(checkpoint.getInvalid());
+        }
+        ImportProgress progress = context.getProgress();
+
+        String stoppedBy = null;
+        try {
+            runPipeline(reader, validate, checkpoint, state, metrics, progress);
+        } catch (InvalidCsvException e) {
+            if (state.parsedCount == 0) {
+                throw e;
             }
+            // earlier chunks are committed: report them rather than a bare 400 a retry would contradict
+            log.warn("CSV import stopped after {} committed rows: {}", state.parsedCount, e.getMessage());
+            stoppedBy = e.getMessage();
+        }
+        state.errors.flush();
 
-            Set<String> appearedID = new HashSet<>();
-            for (DealsDto dto : dtoList) {
-                String reason = validator.validate(Deal.toEntity(dto));
+        log.info("CSV import completed: {} saved, {} duplicates, {} invalid.",
+                state.successCount, state.duplicateCount, state.invalidCount);
+        return new ResultsDto(state.successCount, state.duplicateCount, state.invalidCount,
+                state.errors.render(messageSourceResolver), state.errors.countsByReason(), state.errors.isTruncated(),
+                stoppedBy);
+    }
 
-                if (!appearedID.add(dto.getDealId())) {
-                    errorMessages.add("Duplicate deal in file [" + dto.getDealId() + "] ignored.");
-                    duplicateCount++;
-                    continue;
-                }
+    private <C> void runPipeline(ImportPipeline.ChunkReader<C> reader, Function<C, ValidatedChunk> validate,
+                                 ImportCheckpoint checkpoint, ImportState state, ImportMetrics.Recorder metrics,
+                                 ImportProgress progress) {
+        pipeline.run(
+                () -> metrics.getParse().record(reader::next),
+                chunk -> metrics.getValidate().record(() -> validate.apply(chunk)),
+                chunk -> {
+                    int saved = state.successCount, duplicates = state.duplicateCount, invalid = state.invalidCount;
+                    if (state.parsedCount + chunk.size() <= state.resumeAfter) {
+                        skipChunk(chunk, state);
+                    } else {
+                        partitionManager.ensurePartitions(validDeals(chunk));
+                        state.chunkClaims.clear();
+                        try {
+                            importDatabase.getTransactionTemplate().executeWithoutResult(tx -> {
+                                processChunk(chunk, state);
+                                if (checkpoint != null) {
+                                    checkpointProgress.advance(checkpoint.getJobId(), state.parsedCount + chunk.size(),
+                                            state.successCount, state.duplicateCount, state.invalidCount, Instant.now());
+                                }
+                            });
+                        } catch (RuntimeException e) {
+                            // rolled back, so the ids are free again for the other files of the batch
+                            state.releaseChunkClaims();
+                            throw e;
+                        }
+                    }
+                    state.parsedCount += chunk.size();
+                    metrics.getSaved().increment(state.successCount - saved);
+                    metrics.getDuplicate().increment(state.duplicateCount - duplicates);
+                    metrics.getInvalid().increment(state.invalidCount - invalid);
+                    progress.update(state.parsedCount, state.successCount, state.duplicateCount, state.invalidCount);
+                });
+    }
 
-                if (reason != null) {
-                    errorMessages.add("Invalid deal [" + dto.getDealId() + "]: " + reason);
-                    invalidCount++;
-                    continue;
-                }
+    private List<String[]> readChunk(CSVReader csvReader, int chunkSize) {
+        List<String[]> lines = new ArrayList<>(chunkSize);
+        String[] line;
+        while (lines.size() < chunkSize && (line = parsing(csvReader::readNext)) != null) {
+            lines.add(line);
+        }
+        return lines.isEmpty() ? null : lines;
+    }
+
+    private ValidatedChunk validateChunk(List<String[]> lines, MappingStrategy<DealsDto> mappingStrategy) {
+        List<Deal> deals = new ArrayList<>(lines.size());
+        for (String[] line : lines) {
+            DealsDto dto = parsing(() -> mappingStrategy.populateNewBean(line));
+            deals.add(Deal.toEntity(dto));
+        }
+        return validate(DealColumns.of(deals));
+    }
+
+    private ValidatedChunk validateRows(RowChunk chunk) {
+        try {
+            return validate(DealRowParser.parseColumns(chunk));
+        } catch (MalformedRowException e) {
+            throw invalidCsv(e);
+        }
+    }
+
+    private ValidatedChunk validate(DealColumns deals) {
+        return new ValidatedChunk(deals, validator.check(deals, LocalDateTime.now()));
+    }
+
+    private <T> T parsing(CsvStep<T> step) {
+        try {
+            return step.get();
+        } catch (CsvException | IOException | RuntimeException e) {
+            throw invalidCsv(e);
+        }
+    }
 
-                if (dealRepository.existsByDealId(dto.getDealId())) {
-                    errorMessages.add("Duplicate deal [" + dto.getDealId() + "] ignored.");
-                    duplicateCount++;
-                    continue;
+    private IllegalArgumentException invalidCsv(Exception e) {
+        log.error("Error parsing CSV file", e);
+        return new InvalidCsvException(messageSourceResolver.get("error.csv.invalid.form") + ": " + e.getMessage(), e);
+    }
+
+    private void processChunk(ValidatedChunk chunk, ImportState state) {
+        RejectionReason[] rowErrors = new RejectionReason[chunk.size()];
+        int[] candidateRows = new int[chunk.size()];
+        List<String> candidateIds = new ArrayList<>(chunk.size());
+
+        for (int row = 0; row < chunk.size(); row++) {
+            String dealId = chunk.deals().dealId(row);
+
+            if (state.parsedCount + row < state.resumeAfter) {
+                state.claimInFile(dealId);
+                if (chunk.reasons()[row] == null) {
+                    state.claimInBatch(dealId);
                 }
+                continue;
+            }
+
+            if (!state.claimInFile(dealId)) {
+                rowErrors[row] = RejectionReason.DUPLICATE_IN_FILE;
+                state.duplicateCount++;
+                continue;
+            }
+
+            if (chunk.reasons()[row] != null) {
+                rowErrors[row] = chunk.reasons()[row];
+                state.invalidCount++;
+                continue;
+            }
+
+            if (!state.claimInBatch(dealId)) {
+                rowErrors[row] = RejectionReason.DUPLICATE_IN_BATCH;
+                state.duplicateCount++;
+                continue;
+            }
 
-                Deal deal = Deal.toEntity(dto);
-                dealRepository.save(deal);
-                successCount++;
+            candidateRows[candidateIds.size()] = row;
+            candidateIds.add(dealId);
+        }
+
+        if (!candidateIds.isEmpty()) {
+            persistCandidates(chunk, Arrays.copyOf(candidateRows, candidateIds.size()), candidateIds, rowErrors, state);
+        }
+
+        for (int row = 0; row < rowErrors.length; row++) {
+            if (rowErrors[row] != null) {
+                state.errors.add(state.parsedCount + row + 1, chunk.deals().dealId(row), rowErrors[row]);
+            }
+        }
+    }
+
+    private static DealColumns validDeals(ValidatedChunk chunk) {
+        int[] rows = new int[chunk.size()];
+        int valid = 0;
+        for (int row = 0; row < chunk.size(); row++) {
+            if (chunk.reasons()[row] == null) {
+                rows[valid++] = row;
+            }
+        }
+        return chunk.deals().select(Arrays.copyOf(rows, valid));
+    }
+
+    /**
+     * Rows already committed before a resume: counted in the checkpoint, so only their ids are remembered.
+     */
+    private void skipChunk(ValidatedChunk chunk, ImportState state) {
+        for (int row = 0; row < chunk.size(); row++) {
+            String dealId = chunk.deals().dealId(row);
+            state.claimInFile(dealId);
+            if (chunk.reasons()[row] == null) {
+                state.claimInBatch(dealId);
+            }
+        }
+    }
+
+    private void persistCandidates(ValidatedChunk chunk, int[] candidateRows, List<String> candidateIds,
+                                   RejectionReason[] rowErrors, ImportState state) {
+        // Ids the filter rules out are certainly new; only the rest are looked up.
+        boolean filtered = dealIdFilter.isReady();
+        List<String> probableIds = filtered ? probablyStored(candidateIds) : candidateIds;
+        Set<String> existing = probableIds.isEmpty()
+                ? Set.of()
+                : state.metrics.getDedup().record(() -> dealRepository.findExistingDealIds(probableIds));
+        if (filtered) {
+            dealIdFilter.recordFalsePositives(probableIds.size() - existing.size());
+        }
+        int[] insertRows = new int[candidateRows.length];
+        int inserts = 0;
+        for (int row : candidateRows) {
+            if (existing.contains(chunk.deals().dealId(row))) {
+                rowErrors[row] = RejectionReason.DUPLICATE;
+                state.duplicateCount++;
+                continue;
+            }
+            insertRows[inserts++] = row;
+        }
+
+        if (inserts == 0) {
+            return;
+        }
+
+        // Rows committed by a concurrent import after the lookup above are skipped by the insert itself.
+        DealColumns toInsert = chunk.deals().select(Arrays.copyOf(insertRows, inserts));
+        state.metrics.getBatchSize().record(toInsert.size());
+        Set<String> inserted = state.metrics.getPersist().record(() -> state.loader == ImportLoader.COPY
+                ? dealCopyRepository.copyIgnoringDuplicates(toInsert)
+                : dealBatchRepository.insertIgnoringDuplicates(toInsert));
+        int[] savedRows = new int[toInsert.size()];
+        int saved = 0;
+        for (int i = 0; i < toInsert.size(); i++) {
+            String dealId = toInsert.dealId(i);
+            if (inserted.contains(dealId)) {
+                dealIdFilter.add(dealId);
+                savedRows[saved++] = i;
+                state.successCount++;
+            } else {
+                rowErrors[insertRows[i]] = RejectionReason.DUPLICATE;
+                state.duplicateCount++;
+            }
+        }
+
+        if (importProperties.isUpdateRollups() && saved > 0) {
+            DealColumns savedDeals = toInsert.select(Arrays.copyOf(savedRows, saved));
+            state.metrics.getPersist().record(() -> dealRollupRepository.add(savedDeals));
+        }
+    }
+
+    private List<String> probablyStored(List<String> dealIds) {
+        List<String> probable = new ArrayList<>();
+        for (String dealId : dealIds) {
+            if (dealIdFilter.mightContain(dealId)) {
+                probable.add(dealId);
             }
+        }
+        return probable;
+    }
+
+    /**
+     * Input that cannot be read as CSV; ends the import where it occurs.
+     */
+    private static final class InvalidCsvException extends IllegalArgumentException {
+
+        private InvalidCsvException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
 
-            log.info("CSV import completed: {} saved, {} duplicates, {} invalid.",
-                    successCount, duplicateCount, invalidCount);
-            return new ResultsDto(successCount, duplicateCount, invalidCount, errorMessages);
+    @FunctionalInterface
+    private interface CsvStep<T> {
+        T get() throws CsvException, IOException;
+    }
 
+    /**
+     * A chunk's deals and, at the same index, the reason each was rejected for, or {@code null} when valid.
+     */
+    private record ValidatedChunk(DealColumns deals, RejectionReason[] reasons) {
 
+        int size() {
+            return reasons.length;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class ImportState {
+        private final ImportErrors errors;
+        private final ImportMetrics.Recorder metrics;
+        private final ConcurrentMap<String, Object> batchDealIds;
+        private final ImportLoader loader;
+        private final Set<String> appearedID = new HashSet<>();
+        private final List<String> chunkClaims = new ArrayList<>();
+        private long parsedCount;
+        private long resumeAfter;
+        private int successCount;
+        private int duplicateCount;
+        private int invalidCount;
+
+        /**
+         * Records the dealId as seen in this file, valid or not; false when it was seen before.
+         */
+        private boolean claimInFile(String dealId) {
+            return appearedID.add(dealId);
+        }
+
+        /**
+         * Claims a valid row's dealId for this file across the batch; false when another file holds it.
+         * Only valid rows claim ids, so an invalid copy in one file never keeps the valid one in another from being saved.
+         */
+        private boolean claimInBatch(String dealId) {
+            if (batchDealIds == null) {
+                return true;
+            }
+            Object owner = batchDealIds.putIfAbsent(dealId, this);
+            if (owner == null) {
+                chunkClaims.add(dealId);
+                return true;
+            }
+            return owner == this;
+        }
+
+        private void releaseChunkClaims() {
+            if (batchDealIds != null) {
+                chunkClaims.forEach(dealId -> batchDealIds.remove(dealId, this));
+            }
+            chunkClaims.clear();
         }
     }
 
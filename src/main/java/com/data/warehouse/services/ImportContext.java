@@ -0,0 +1,52 @@
+package com.data.warehouse.services;
+
+import com.data.warehouse.dto.ImportLoader;
+import com.data.warehouse.models.ImportCheckpoint;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.Writer;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-import options passed to {@link DealService#importStream(java.io.InputStream, ImportContext)}.
+ */
+@Getter
+@Builder
+public class ImportContext {
+
+    @Builder.Default
+    private final ImportProgress progress = new ImportProgress();
+
+    /**
+     * Tags the import's metrics; see {@link ImportMetrics}.
+     */
+    @Builder.Default
+    private final String jobId = ImportMetrics.SYNC_JOB;
+
+    /**
+     * Receives every rejected row as CSV when set; the response itself only carries a capped sample.
+     */
+    private final Writer errorReport;
+
+    /**
+     * Advanced with every committed chunk when set. Rows up to its {@code rowsCommitted} are only read
+     * again to rebuild the in-file duplicate check, and its counts are carried into the result.
+     */
+    private final ImportCheckpoint checkpoint;
+
+    /**
+     * dealIds seen by any file of the same batch, mapped to the import that saw them first. Checked in addition
+     * to the per-file duplicate check when set, so an id repeated in another file of the batch is rejected as well.
+     */
+    private final ConcurrentMap<String, Object> batchDealIds;
+
+    /**
+     * {@code warehouse.import.loader} when not set.
+     */
+    private final ImportLoader loader;
+
+    public static ImportContext defaults() {
+        return builder().build();
+    }
+}
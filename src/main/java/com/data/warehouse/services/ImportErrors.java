@@ -0,0 +1,122 @@
+package com.data.warehouse.services;
+
+import com.data.warehouse.config.MessageResolver;
+import com.data.warehouse.validator.RejectionReason;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rejected rows of one import, kept as reason codes rather than messages. Only the first
+ * {@code maxDetails} rows are retained (row number, dealId, reason ordinal); every rejection is
+ * counted per reason and, when a report writer is given, appended to it as a CSV line.
+ * Messages are rendered on demand for the retained rows only.
+ */
+public class ImportErrors {
+
+    private static final RejectionReason[] REASONS = RejectionReason.values();
+
+    private final long[] rows;
+    private final String[] dealIds;
+    private final byte[] reasons;
+    private final long[] counts = new long[REASONS.length];
+    private final Writer report;
+    private int size;
+
+    public ImportErrors(int maxDetails, Writer report) {
+        int capacity = Math.max(0, maxDetails);
+        this.rows = new long[capacity];
+        this.dealIds = new String[capacity];
+        this.reasons = new byte[capacity];
+        this.report = report;
+        if (report != null) {
+            write("row,dealId,reason\n");
+        }
+    }
+
+    public void add(long row, String dealId, RejectionReason reason) {
+        counts[reason.ordinal()]++;
+        if (size < rows.length) {
+            rows[size] = row;
+            dealIds[size] = dealId;
+            reasons[size] = (byte) reason.ordinal();
+            size++;
+        }
+        if (report != null) {
+            write(row + "," + csvField(dealId) + "," + reason.name() + "\n");
+        }
+    }
+
+    public long count(RejectionReason reason) {
+        return counts[reason.ordinal()];
+    }
+
+    public boolean isTruncated() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total > size;
+    }
+
+    public Map<String, Long> countsByReason() {
+        Map<String, Long> byReason = new LinkedHashMap<>();
+        for (RejectionReason reason : REASONS) {
+            if (counts[reason.ordinal()] > 0) {
+                byReason.put(reason.name(), counts[reason.ordinal()]);
+            }
+        }
+        return byReason;
+    }
+
+    public List<String> render(MessageResolver messageResolver) {
+        String[] reasonMessages = new String[REASONS.length];
+        List<String> messages = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            RejectionReason reason = REASONS[reasons[i]];
+            if (reason.isDuplicate()) {
+                messages.add(messageResolver.get(reason.getMessageKey(), new Object[]{dealIds[i]}));
+                continue;
+            }
+            if (reasonMessages[reason.ordinal()] == null) {
+                reasonMessages[reason.ordinal()] = messageResolver.get(reason.getMessageKey());
+            }
+            messages.add(messageResolver.get("error.deal.invalid", new Object[]{dealIds[i], reasonMessages[reason.ordinal()]}));
+        }
+        return messages;
+    }
+
+    public void flush() {
+        if (report != null) {
+            try {
+                report.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void write(String line) {
+        try {
+            report.write(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
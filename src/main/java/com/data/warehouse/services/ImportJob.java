@@ -0,0 +1,71 @@
+package com.data.warehouse.services;
+
+import com.data.warehouse.dto.ImportJobDto;
+import com.data.warehouse.dto.ResultsDto;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+@Getter
+@RequiredArgsConstructor
+public class ImportJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id;
+    private final String fileName;
+    private final Instant submittedAt = Instant.now();
+    private final ImportProgress progress = new ImportProgress();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile ResultsDto result;
+    private volatile String error;
+
+    @Setter
+    private volatile Path errorReport;
+
+    void started() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void completed(ResultsDto result) {
+        this.result = result;
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public ImportJobDto toDto() {
+        return new ImportJobDto(
+                id,
+                fileName,
+                status.name(),
+                progress.getParsed(),
+                progress.getSaved(),
+                progress.getDuplicates(),
+                progress.getInvalid(),
+                submittedAt,
+                startedAt,
+                finishedAt,
+                result,
+                error
+        );
+    }
+}
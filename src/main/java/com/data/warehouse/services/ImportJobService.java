@@ -0,0 +1,369 @@
+package com.data.warehouse.services;
+
+import com.data.warehouse.config.ImportProperties;
+import com.data.warehouse.config.MessageResolver;
+import com.data.warehouse.dto.ImportLoader;
+import com.data.warehouse.dto.ResultsDto;
+import com.data.warehouse.models.ImportCheckpoint;
+import com.data.warehouse.repository.ImportCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs uploads in the background on a bounded pool and keeps their state for polling.
+ * The registry holds at most {@code maxJobs} entries; finished jobs are dropped once they
+ * are older than the retention period, or oldest first when the registry is full.
+ * <p>
+ * Every job has an {@link ImportCheckpoint} until it completes. A failed job, or one interrupted by a
+ * restart, keeps its checkpoint and spooled upload so it can be resumed; both are removed when a failed
+ * job is dropped from the registry, or at the next startup once they are older than the retention period.
+ */
+@Service
+@Slf4j
+public class ImportJobService {
+
+    private final DealService dealService;
+    private final MessageResolver messageSourceResolver;
+    private final ImportMetrics importMetrics;
+    private final ImportCheckpointRepository checkpointRepository;
+    private final ImportProperties.Jobs properties;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobService(DealService dealService, MessageResolver messageSourceResolver,
+                            ImportMetrics importMetrics, ImportCheckpointRepository checkpointRepository,
+                            ImportProperties importProperties) {
+        this.dealService = dealService;
+        this.messageSourceResolver = messageSourceResolver;
+        this.importMetrics = importMetrics;
+        this.checkpointRepository = checkpointRepository;
+        this.properties = importProperties.getJobs();
+        this.executor = new ThreadPoolExecutor(
+                properties.getWorkers(), properties.getWorkers(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                ImportPipeline.daemonThreadFactory("deal-import-job-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Runs before any job of this instance can start. Checkpoints still marked running were cut off by the
+     * restart and become failed, so they stay resumable. Checkpoints older than the retention period go with
+     * their spooled uploads, and spooled files no checkpoint refers to are deleted.
+     */
+    @PostConstruct
+    public void sweepInterrupted() {
+        Instant now = Instant.now();
+        Instant cutoff = now.minus(properties.getRetention());
+        Set<Path> sources = new HashSet<>();
+        try {
+            for (ImportCheckpoint checkpoint : checkpointRepository.findAll()) {
+                Path source = Path.of(checkpoint.getSourcePath()).toAbsolutePath();
+                if (checkpoint.getUpdatedAt().isBefore(cutoff)) {
+                    if (checkpoint.isOwnsSource()) {
+                        deleteSpooled(source);
+                    }
+                    checkpointRepository.delete(checkpoint);
+                    continue;
+                }
+                if (checkpoint.getStatus() == ImportCheckpoint.Status.RUNNING) {
+                    log.info("Import job {} was interrupted by a restart and can be resumed", checkpoint.getJobId());
+                    checkpointRepository.updateStatus(checkpoint.getJobId(), ImportCheckpoint.Status.FAILED, now);
+                }
+                sources.add(source);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not sweep the checkpoints of interrupted import jobs", e);
+            return;
+        }
+
+        // error reports match as well; they belong to jobs of the previous run, which cannot be polled any more
+        try (DirectoryStream<Path> spooled = Files.newDirectoryStream(spoolDirectory(), "deal-import-*.csv")) {
+            for (Path file : spooled) {
+                if (!sources.contains(file.toAbsolutePath())) {
+                    deleteSpooled(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not sweep the spooled uploads of interrupted import jobs", e);
+        }
+    }
+
+    public ImportJob submit(MultipartFile file) throws IOException {
+        return submit(file, null);
+    }
+
+    /**
+     * @param loader {@code null} for {@code warehouse.import.loader}; kept when the job is resumed
+     */
+    public ImportJob submit(MultipartFile file, ImportLoader loader) throws IOException {
+        dealService.checkUpload(file);
+        // fails fast before the upload is spooled; the slot itself is taken when the job starts
+        synchronized (this) {
+            makeRoom();
+        }
+
+        ImportJob job = newJob(UUID.randomUUID().toString(), file.getOriginalFilename());
+        Path spooled = spool(file);
+        try {
+            return start(job, checkpoint(job, spooled, true, loader), finished -> { });
+        } catch (RuntimeException e) {
+            checkpointRepository.deleteById(job.getId());
+            deleteSpooled(spooled);
+            throw e;
+        }
+    }
+
+    /**
+     * Imports a file already on the server, read in place. {@code onFinished} runs on the job thread once
+     * the job has completed or failed; nothing is called if the job is rejected because the queue is full.
+     */
+    public ImportJob submit(Path file, Consumer<ImportJob> onFinished) throws IOException {
+        return submit(file, null, onFinished);
+    }
+
+    public ImportJob submit(Path file, ImportLoader loader, Consumer<ImportJob> onFinished) throws IOException {
+        ImportJob job = newJob(UUID.randomUUID().toString(), file.getFileName().toString());
+        try {
+            return start(job, checkpoint(job, file, false, loader), onFinished);
+        } catch (RuntimeException e) {
+            checkpointRepository.deleteById(job.getId());
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a failed or interrupted job again under the same id, continuing after its last committed chunk.
+     * Counts carry over from the checkpoint; error details only cover the rows processed after it.
+     */
+    public synchronized ImportJob resume(String id) throws IOException {
+        ImportJob current = jobs.get(id);
+        ImportCheckpoint checkpoint = current == null || current.isFinished()
+                ? checkpointRepository.findById(id).orElse(null)
+                : null;
+        if (checkpoint == null || !Files.isRegularFile(Path.of(checkpoint.getSourcePath()))) {
+            throw new IllegalArgumentException(messageSourceResolver.get("error.import.not.resumable", new Object[]{id}));
+        }
+        jobs.remove(id);
+
+        ImportJob job = newJob(id, checkpoint.getFileName());
+        job.getProgress().update(checkpoint.getRowsCommitted(), checkpoint.getSaved(),
+                checkpoint.getDuplicates(), checkpoint.getInvalid());
+        checkpoint.setStatus(ImportCheckpoint.Status.RUNNING);
+        checkpoint.setUpdatedAt(Instant.now());
+        try {
+            return start(job, checkpointRepository.save(checkpoint), finished -> { });
+        } catch (RuntimeException e) {
+            checkpointRepository.updateStatus(id, ImportCheckpoint.Status.FAILED, Instant.now());
+            throw e;
+        }
+    }
+
+    /**
+     * Moves the server-side file of a finished job and points its checkpoint, if it still has one, at the new
+     * location, so a failed job stays resumable. The file is moved back if the checkpoint cannot be updated.
+     */
+    public void moveSource(String jobId, Path source, Path target) throws IOException {
+        Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        try {
+            checkpointRepository.updateSourcePath(jobId, target.toAbsolutePath().toString(), Instant.now());
+        } catch (RuntimeException e) {
+            Files.move(target, source);
+            throw e;
+        }
+    }
+
+    public Optional<ImportJob> find(String id) {
+        evictExpired();
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private ImportJob newJob(String id, String fileName) throws IOException {
+        ImportJob job = new ImportJob(id, fileName);
+        if (properties.isErrorReports()) {
+            job.setErrorReport(spoolDirectory().resolve("deal-import-" + job.getId() + "-errors.csv"));
+        }
+        return job;
+    }
+
+    private ImportCheckpoint checkpoint(ImportJob job, Path source, boolean ownsSource, ImportLoader loader) {
+        return checkpointRepository.save(ImportCheckpoint.builder()
+                .jobId(job.getId())
+                .fileName(job.getFileName())
+                .sourcePath(source.toAbsolutePath().toString())
+                .ownsSource(ownsSource)
+                .loader(loader)
+                .status(ImportCheckpoint.Status.RUNNING)
+                .updatedAt(Instant.now())
+                .build());
+    }
+
+    private ImportJob start(ImportJob job, ImportCheckpoint checkpoint, Consumer<ImportJob> onFinished) {
+        reserveSlot(job);
+        try {
+            executor.execute(() -> run(job, checkpoint, onFinished));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw busy();
+        }
+        return job;
+    }
+
+    private void run(ImportJob job, ImportCheckpoint checkpoint, Consumer<ImportJob> onFinished) {
+        job.started();
+        ResultsDto result = null;
+        String error = null;
+        try (Writer errorReport = job.getErrorReport() == null ? null : Files.newBufferedWriter(job.getErrorReport())) {
+            ImportContext context = ImportContext.builder()
+                    .progress(job.getProgress())
+                    .jobId(job.getId())
+                    .errorReport(errorReport)
+                    .checkpoint(checkpoint)
+                    .loader(checkpoint.getLoader())
+                    .build();
+            result = dealService.importFile(Path.of(checkpoint.getSourcePath()), context);
+        } catch (IllegalArgumentException e) {
+            error = e.getMessage();
+        } catch (Exception e) {
+            log.error("Import job {} failed", job.getId(), e);
+            error = messageSourceResolver.get("error.import.failed");
+        }
+
+        // settled before the status flips, so a finished job never has a stale checkpoint
+        settle(job.getId(), checkpoint, error == null);
+        if (error == null) {
+            job.completed(result);
+        } else {
+            job.failed(error);
+        }
+        onFinished.accept(job);
+    }
+
+    /**
+     * Drops the checkpoint and spooled upload of a completed job; keeps both, marked failed, otherwise.
+     */
+    private void settle(String jobId, ImportCheckpoint checkpoint, boolean completed) {
+        try {
+            if (completed) {
+                if (checkpoint.isOwnsSource()) {
+                    deleteSpooled(Path.of(checkpoint.getSourcePath()));
+                }
+                checkpointRepository.deleteById(jobId);
+            } else {
+                checkpointRepository.updateStatus(jobId, ImportCheckpoint.Status.FAILED, Instant.now());
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not update the checkpoint of import job {}", jobId, e);
+        }
+    }
+
+    private void deleteSpooled(Path spooled) {
+        try {
+            Files.deleteIfExists(spooled);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled upload {}", spooled, e);
+        }
+    }
+
+    /**
+     * Makes room and registers the job under one lock, so concurrent submits cannot overfill the registry.
+     */
+    private synchronized void reserveSlot(ImportJob job) {
+        makeRoom();
+        jobs.put(job.getId(), job);
+    }
+
+    private void makeRoom() {
+        evictExpired();
+        while (jobs.size() >= properties.getMaxJobs()) {
+            Optional<ImportJob> oldest = jobs.values().stream()
+                    .filter(ImportJob::isFinished)
+                    .min(Comparator.comparing(ImportJob::getFinishedAt));
+            if (oldest.isEmpty()) {
+                throw busy();
+            }
+            discard(oldest.get());
+        }
+    }
+
+    private void evictExpired() {
+        Instant cutoff = Instant.now().minus(properties.getRetention());
+        jobs.values().stream()
+                .filter(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff))
+                .toList()
+                .forEach(this::discard);
+    }
+
+    private void discard(ImportJob job) {
+        if (jobs.remove(job.getId()) == null) {
+            return;
+        }
+        importMetrics.discard(job.getId());
+        try {
+            checkpointRepository.findById(job.getId()).ifPresent(checkpoint -> {
+                if (checkpoint.isOwnsSource()) {
+                    deleteSpooled(Path.of(checkpoint.getSourcePath()));
+                }
+                checkpointRepository.delete(checkpoint);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not drop the checkpoint of import job {}", job.getId(), e);
+        }
+        if (job.getErrorReport() != null) {
+            try {
+                Files.deleteIfExists(job.getErrorReport());
+            } catch (IOException e) {
+                log.warn("Could not delete error report {}", job.getErrorReport(), e);
+            }
+        }
+    }
+
+    private Path spoolDirectory() throws IOException {
+        return properties.getSpoolDir() == null
+                ? Path.of(System.getProperty("java.io.tmpdir"))
+                : Files.createDirectories(Path.of(properties.getSpoolDir()));
+    }
+
+    private Path spool(MultipartFile file) throws IOException {
+        Path spooled = Files.createTempFile(spoolDirectory(), "deal-import-", ".csv");
+        try {
+            file.transferTo(spooled);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spooled);
+            throw e;
+        }
+        return spooled;
+    }
+
+    private RejectedExecutionException busy() {
+        return new RejectedExecutionException(messageSourceResolver.get("error.import.busy"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
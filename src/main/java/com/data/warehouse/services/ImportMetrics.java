@@ -0,0 +1,91 @@
+package com.data.warehouse.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Micrometer meters of the import path, tagged with the job that produced them
+ * ({@code sync} for direct uploads):
+ * <ul>
+ *     <li>{@code deals.import.stage} timer per stage: parse, validate, dedup and persist, the last two
+ *     being database round trips with latency histograms</li>
+ *     <li>{@code deals.import.rows} counter per outcome: saved, duplicate and invalid; its rate is the
+ *     import throughput in rows/sec</li>
+ *     <li>{@code deals.import.batch.size} summary of rows sent to the database per insert</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class ImportMetrics {
+
+    public static final String SYNC_JOB = "sync";
+
+    private static final String JOB_TAG = "job";
+
+    private final MeterRegistry registry;
+
+    public Recorder recorder(String jobId) {
+        return new Recorder(registry, Tags.of(JOB_TAG, jobId));
+    }
+
+    /**
+     * Drops the meters of a job that left the registry, so per-job tags do not accumulate.
+     */
+    public void discard(String jobId) {
+        List.copyOf(registry.getMeters()).stream()
+                .filter(meter -> jobId.equals(meter.getId().getTag(JOB_TAG)))
+                .forEach(registry::remove);
+    }
+
+    @Getter
+    public static class Recorder {
+
+        private final Timer parse;
+        private final Timer validate;
+        private final Timer dedup;
+        private final Timer persist;
+        private final Counter saved;
+        private final Counter duplicate;
+        private final Counter invalid;
+        private final DistributionSummary batchSize;
+
+        Recorder(MeterRegistry registry, Tags tags) {
+            this.parse = stage(registry, tags, "parse", false);
+            this.validate = stage(registry, tags, "validate", false);
+            this.dedup = stage(registry, tags, "dedup", true);
+            this.persist = stage(registry, tags, "persist", true);
+            this.saved = rows(registry, tags, "saved");
+            this.duplicate = rows(registry, tags, "duplicate");
+            this.invalid = rows(registry, tags, "invalid");
+            this.batchSize = DistributionSummary.builder("deals.import.batch.size")
+                    .description("Rows sent to the database per insert")
+                    .baseUnit("rows")
+                    .tags(tags)
+                    .register(registry);
+        }
+
+        private static Timer stage(MeterRegistry registry, Tags tags, String stage, boolean histogram) {
+            return Timer.builder("deals.import.stage")
+                    .description("Time spent per import stage and chunk")
+                    .tags(tags.and("stage", stage))
+                    .publishPercentileHistogram(histogram)
+                    .register(registry);
+        }
+
+        private static Counter rows(MeterRegistry registry, Tags tags, String outcome) {
+            return Counter.builder("deals.import.rows")
+                    .description("Imported rows by outcome")
+                    .baseUnit("rows")
+                    .tags(tags.and("outcome", outcome))
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.data.warehouse.services;
+
+import com.data.warehouse.config.ImportProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Three-stage import pipeline: a reader thread cuts the input into chunks, a shared worker pool
+ * transforms them, and the calling thread writes the results in the order the chunks were read.
+ * At most {@code queueDepth} chunks are in flight per import, so a slow writer stalls the reader
+ * instead of letting parsed rows pile up in memory.
+ */
+@Component
+@Slf4j
+public class ImportPipeline {
+
+    @FunctionalInterface
+    public interface ChunkReader<C> {
+
+        /**
+         * @return the next chunk, or {@code null} once the input is exhausted
+         */
+        C next();
+    }
+
+    private static final Future<Object> END = CompletableFuture.completedFuture(null);
+
+    private final ExecutorService workers;
+    private final ExecutorService readers;
+    private final int queueDepth;
+
+    public ImportPipeline(ImportProperties importProperties) {
+        int parallelism = importProperties.getParallelism() > 0
+                ? importProperties.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        this.workers = Executors.newFixedThreadPool(parallelism, daemonThreadFactory("deal-import-worker-"));
+        this.readers = Executors.newCachedThreadPool(daemonThreadFactory("deal-import-reader-"));
+        this.queueDepth = Math.max(1, importProperties.getQueueDepth());
+    }
+
+    public <C, R> void run(ChunkReader<C> reader, Function<C, R> worker, Consumer<R> writer) {
+        BlockingQueue<Future<R>> pending = new ArrayBlockingQueue<>(queueDepth);
+        CountDownLatch readerDone = new CountDownLatch(1);
+        Future<?> readerTask = readers.submit(() -> read(reader, worker, pending, readerDone));
+
+        try {
+            Future<R> next;
+            while ((next = pending.take()) != END) {
+                writer.accept(await(next));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted", e);
+        } finally {
+            readerTask.cancel(true);
+            drain(pending, readerDone);
+        }
+    }
+
+    private <C, R> void read(ChunkReader<C> reader, Function<C, R> worker, BlockingQueue<Future<R>> pending,
+                             CountDownLatch readerDone) {
+        try {
+            C chunk;
+            while (!Thread.currentThread().isInterrupted() && (chunk = reader.next()) != null) {
+                C current = chunk;
+                pending.put(workers.submit(() -> worker.apply(current)));
+            }
+            pending.put(end());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            try {
+                pending.put(CompletableFuture.failedFuture(e));
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            readerDone.countDown();
+        }
+    }
+
+    private static <R> R await(Future<R> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Cancels whatever is still queued and waits for the reader to stop touching the input,
+     * so the caller can safely close it.
+     */
+    private static <R> void drain(BlockingQueue<Future<R>> pending, CountDownLatch readerDone) {
+        boolean interrupted = false;
+        while (true) {
+            cancelAll(pending);
+            try {
+                if (readerDone.await(10, TimeUnit.MILLISECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        cancelAll(pending);
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static <R> void cancelAll(BlockingQueue<Future<R>> pending) {
+        Future<R> queued;
+        while ((queued = pending.poll()) != null) {
+            queued.cancel(true);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> Future<R> end() {
+        return (Future<R>) END;
+    }
+
+    static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+        readers.shutdownNow();
+    }
+}
@@ -0,0 +1,37 @@
+package com.data.warehouse.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running counters of an import, updated after every chunk and safe to read from other threads.
+ */
+public class ImportProgress {
+
+    private final AtomicLong parsed = new AtomicLong();
+    private final AtomicLong saved = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong invalid = new AtomicLong();
+
+    void update(long parsed, long saved, long duplicates, long invalid) {
+        this.parsed.set(parsed);
+        this.saved.set(saved);
+        this.duplicates.set(duplicates);
+        this.invalid.set(invalid);
+    }
+
+    public long getParsed() {
+        return parsed.get();
+    }
+
+    public long getSaved() {
+        return saved.get();
+    }
+
+    public long getDuplicates() {
+        return duplicates.get();
+    }
+
+    public long getInvalid() {
+        return invalid.get();
+    }
+}
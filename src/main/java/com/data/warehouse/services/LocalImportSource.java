@@ -0,0 +1,57 @@
+package com.data.warehouse.services;
+
+import com.data.warehouse.config.ImportProperties;
+import com.data.warehouse.config.MessageResolver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+
+/**
+ * Resolves server-side deal files. Only regular files inside {@code warehouse.import.local.base-dir}
+ * are accepted; paths are resolved through symlinks before the check, so links cannot escape it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LocalImportSource {
+
+    private final ImportProperties importProperties;
+    private final MessageResolver messageSourceResolver;
+
+    public Path resolve(String path) {
+        Path base = baseDirectory();
+        Path file;
+        try {
+            file = base.resolve(path).normalize().toRealPath();
+        } catch (IOException | InvalidPathException e) {
+            throw notFound(path);
+        }
+        if (!file.startsWith(base) || !Files.isRegularFile(file)) {
+            throw notFound(path);
+        }
+        return file;
+    }
+
+    public Path baseDirectory() {
+        String baseDir = importProperties.getLocal().getBaseDir();
+        if (baseDir == null || baseDir.isBlank()) {
+            throw new IllegalArgumentException(messageSourceResolver.get("error.local.disabled"));
+        }
+        try {
+            return Path.of(baseDir).toRealPath();
+        } catch (IOException | InvalidPathException e) {
+            log.error("Local import directory {} is not accessible", baseDir, e);
+            throw new IllegalArgumentException(messageSourceResolver.get("error.local.disabled"));
+        }
+    }
+
+    private IllegalArgumentException notFound(String path) {
+        log.warn("Rejected local import path {}", path);
+        return new IllegalArgumentException(messageSourceResolver.get("error.local.path", new Object[]{path}));
+    }
+}
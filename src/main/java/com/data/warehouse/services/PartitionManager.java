@@ -0,0 +1,143 @@
+package com.data.warehouse.services;
+
+import com.data.warehouse.config.ImportProperties;
+import com.data.warehouse.parser.DealColumns;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the monthly partitions of {@code deals}: a few months ahead once a day, and on demand for the months of
+ * each import chunk before the chunk's transaction starts. A new partition takes over any rows of its month that
+ * had already landed in {@code deals_default}.
+ * <p>
+ * Each partition is created in a transaction of its own, serialised across instances by an advisory lock. It is
+ * attached rather than created as {@code PARTITION OF}, which leaves {@code deals} itself open to writes; only
+ * {@code deals_default} is locked while its rows move.
+ */
+@Slf4j
+@Service
+public class PartitionManager {
+
+    private static final long LOCK_KEY = 0x6465616c73L; // "deals"
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("'deals_p'yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate ownTransaction;
+    private final ImportProperties.Partitions properties;
+    private final Set<YearMonth> created = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService scheduler;
+
+    public PartitionManager(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            ImportProperties importProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = importProperties.getPartitions();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void scheduleAhead() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(ImportPipeline.daemonThreadFactory("deal-partitions-"));
+        scheduler.scheduleWithFixedDelay(this::createAhead, 0, 1, TimeUnit.DAYS);
+    }
+
+    /**
+     * Makes sure every month the deals fall in has its partition. Must not be called inside a transaction that
+     * has read {@code deals}: attaching a partition waits for such transactions to end.
+     */
+    public void ensurePartitions(DealColumns deals) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Set<YearMonth> missing = new TreeSet<>();
+        // rows of a chunk mostly share a month, which is then looked up once
+        long monthFrom = 0;
+        long monthTo = 0;
+        for (int row = 0; row < deals.size(); row++) {
+            long second = deals.epochSecond(row);
+            if (second >= monthFrom && second < monthTo) {
+                continue;
+            }
+            YearMonth month = YearMonth.from(LocalDateTime.ofEpochSecond(second, 0, ZoneOffset.UTC));
+            monthFrom = month.atDay(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+            monthTo = month.plusMonths(1).atDay(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+            if (!created.contains(month)) {
+                missing.add(month);
+            }
+        }
+        missing.forEach(this::create);
+    }
+
+    void createAhead() {
+        try {
+            YearMonth current = YearMonth.now();
+            for (int i = 0; i <= properties.getMonthsAhead(); i++) {
+                if (!created.contains(current.plusMonths(i))) {
+                    create(current.plusMonths(i));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not create the upcoming deal partitions", e);
+        }
+    }
+
+    static String partitionName(YearMonth month) {
+        return NAME.format(month);
+    }
+
+    private void create(YearMonth month) {
+        String name = partitionName(month);
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+
+        ownTransaction.executeWithoutResult(tx -> {
+            jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", LOCK_KEY);
+            Boolean exists = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_inherits WHERE inhparent = 'deals'::regclass AND inhrelid::regclass::text = ?)",
+                    Boolean.class, name);
+            if (Boolean.TRUE.equals(exists)) {
+                return;
+            }
+            // Attaching locks the default partition anyway; taking the lock first keeps rows of this month from
+            // landing there between the move and the attach.
+            jdbcTemplate.execute("LOCK TABLE deals_default IN ACCESS EXCLUSIVE MODE");
+            jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE deals INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            jdbcTemplate.execute("SET LOCAL warehouse.moving_deals = 'on'");
+            int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM deals_default WHERE timestamp >= ? AND timestamp < ? RETURNING *) "
+                    + "INSERT INTO " + name + " SELECT * FROM moved", from, to);
+            jdbcTemplate.execute("ALTER TABLE deals ATTACH PARTITION " + name
+                    + " FOR VALUES FROM ('" + from.toLocalDate() + "') TO ('" + to.toLocalDate() + "')");
+            log.info("Created deal partition {}{}", name, moved > 0 ? " with " + moved + " rows from deals_default" : "");
+        });
+        created.add(month);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.data.warehouse.services;
+
+import com.data.warehouse.config.ImportProperties;
+import com.data.warehouse.config.MessageResolver;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs direct uploads with at most {@code warehouse.import.uploads.concurrency} imports at a time, so a burst
+ * of uploads queues here instead of exhausting the connection pool. In {@code BLOCKING} mode the request thread
+ * waits for a slot and imports itself; in {@code ASYNC} mode the request is suspended and the import runs on a
+ * pool of its own, leaving the container thread free for other requests. Either way, uploads beyond
+ * {@code queue-capacity} are rejected; a blocking upload is also rejected once it has waited {@code queue-timeout}.
+ */
+@Service
+public class UploadExecutor {
+
+    private final MessageResolver messageSourceResolver;
+    private final ImportProperties.Uploads properties;
+    private final Semaphore slots;
+    private final Semaphore admitted;
+    private final ThreadPoolExecutor executor;
+
+    public UploadExecutor(ImportProperties importProperties, MessageResolver messageSourceResolver,
+                          MeterRegistry meterRegistry) {
+        this.messageSourceResolver = messageSourceResolver;
+        this.properties = importProperties.getUploads();
+        int concurrency = Math.max(1, properties.getConcurrency());
+        int queueCapacity = Math.max(1, properties.getQueueCapacity());
+
+        if (properties.getMode() == ImportProperties.Uploads.Mode.ASYNC) {
+            this.slots = null;
+            this.admitted = null;
+            this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), ImportPipeline.daemonThreadFactory("deal-upload-"),
+                    new ThreadPoolExecutor.AbortPolicy());
+            Gauge.builder("deals.import.uploads.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+            Gauge.builder("deals.import.uploads.waiting", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+        } else {
+            this.slots = new Semaphore(concurrency, true);
+            // running plus waiting uploads, so the queue bound holds under concurrent submits
+            this.admitted = new Semaphore(concurrency + queueCapacity);
+            this.executor = null;
+            Gauge.builder("deals.import.uploads.active", slots, s -> concurrency - s.availablePermits()).register(meterRegistry);
+            Gauge.builder("deals.import.uploads.waiting", slots, Semaphore::getQueueLength).register(meterRegistry);
+        }
+    }
+
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (executor != null) {
+            try {
+                executor.execute(() -> complete(result, task));
+            } catch (RejectedExecutionException e) {
+                throw busy();
+            }
+            return result;
+        }
+
+        if (!admitted.tryAcquire()) {
+            throw busy();
+        }
+        try {
+            acquireSlot();
+            try {
+                complete(result, task);
+            } finally {
+                slots.release();
+            }
+        } finally {
+            admitted.release();
+        }
+        return result;
+    }
+
+    private void acquireSlot() {
+        try {
+            if (!slots.tryAcquire(properties.getQueueTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw busy();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw busy();
+        }
+    }
+
+    private static <T> void complete(CompletableFuture<T> result, Callable<T> task) {
+        try {
+            result.complete(task.call());
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private RejectedExecutionException busy() {
+        return new RejectedExecutionException(messageSourceResolver.get("error.upload.busy"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.data.warehouse.utils;
+
+import com.github.luben.zstd.ZstdInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Recognises gzip and zstd payloads by their magic bytes and decompresses them on the fly, so a
+ * compressed file is never inflated as a whole, neither in memory nor on disk.
+ */
+public final class Compression {
+
+    public static final Set<String> CONTENT_TYPES = Set.of(
+            "application/gzip", "application/x-gzip", "application/zstd");
+    public static final Set<String> EXTENSIONS = Set.of(".gz", ".zst");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] GZIP_MAGIC = {(byte) 0x1F, (byte) 0x8B};
+    private static final byte[] ZSTD_MAGIC = {(byte) 0x28, (byte) 0xB5, (byte) 0x2F, (byte) 0xFD};
+
+    private Compression() {
+    }
+
+    /**
+     * @return a stream of the decompressed content, or of {@code in} unchanged when it is not compressed
+     */
+    public static InputStream decompressing(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        buffered.mark(ZSTD_MAGIC.length);
+        byte[] head = buffered.readNBytes(ZSTD_MAGIC.length);
+        buffered.reset();
+
+        if (startsWith(head, GZIP_MAGIC)) {
+            return new GZIPInputStream(buffered, BUFFER_SIZE);
+        }
+        if (startsWith(head, ZSTD_MAGIC)) {
+            return new ZstdInputStream(buffered);
+        }
+        return buffered;
+    }
+
+    public static boolean isCompressedType(String contentType) {
+        return contentType != null && CONTENT_TYPES.contains(contentType.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Strips a {@code .gz} or {@code .zst} suffix, e.g. {@code deals.csv.gz} becomes {@code deals.csv}.
+     */
+    public static String stripExtension(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        for (String extension : EXTENSIONS) {
+            if (lower.endsWith(extension)) {
+                return fileName.substring(0, fileName.length() - extension.length());
+            }
+        }
+        return fileName;
+    }
+
+    private static boolean startsWith(byte[] head, byte[] magic) {
+        if (head.length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (head[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,46 +1,105 @@
 package com.data.warehouse.utils;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.Currency;
-import java.util.HashSet;
-import java.util.Set;
 
 
+/**
+ * Validates three-letter currency codes against a precomputed allow-list.
+ * Every possible code maps to one bit of a 26³ bitset, so a lookup is three char
+ * reads and a mask test: no allocation, no exceptions, case-insensitive.
+ */
 @Component
 public class CurrencyUtil {
 
-    private static final Set<String> VALID_CURRENCY_CODES = new HashSet<>();
+    public enum Source {
+        /** Every code the JDK knows from ISO 4217. */
+        ISO,
+        /** The curated list in {@code valid-currencies.txt}. */
+        FILE
+    }
+
+    private static final String CURRENCY_FILE = "valid-currencies.txt";
+    static final int LETTERS = 26;
+
+    private final long[] validCodes = new long[(LETTERS * LETTERS * LETTERS + 63) / 64];
+
+
+    public CurrencyUtil(@Value("${warehouse.currency.source:file}") Source source) {
+        if (source == Source.ISO) {
+            Currency.getAvailableCurrencies().forEach(currency -> register(currency.getCurrencyCode()));
+        } else {
+            loadFile();
+        }
+    }
+
+
+    public boolean isValid(String currencyCode) {
+        if (currencyCode == null || currencyCode.length() != 3) {
+            return false;
+        }
+        return isValid(key(currencyCode.charAt(0), currencyCode.charAt(1), currencyCode.charAt(2)));
+    }
 
-    static {
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(
-                        CurrencyUtil.class.getClassLoader().getResourceAsStream("valid-currencies.txt")))) {
+    /**
+     * Checks a code by its key {@code (a * 26 + b) * 26 + c}, letters counted from A; negative keys are invalid.
+     */
+    public boolean isValid(int key) {
+        return key >= 0 && (validCodes[key >>> 6] & (1L << key)) != 0;
+    }
 
+    private void loadFile() {
+        InputStream resource = CurrencyUtil.class.getClassLoader().getResourceAsStream(CURRENCY_FILE);
+        if (resource == null) {
+            throw new IllegalStateException("Missing " + CURRENCY_FILE + " on the classpath");
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource, StandardCharsets.UTF_8))) {
             String line;
             while ((line = reader.readLine()) != null) {
-                VALID_CURRENCY_CODES.add(line.trim().toUpperCase());
+                String code = line.trim();
+                if (!code.isEmpty()) {
+                    register(code);
+                }
             }
-
         } catch (IOException e) {
             throw new RuntimeException("Failed to load valid currencies", e);
         }
     }
 
+    private void register(String code) {
+        int key = code.length() == 3 ? key(code.charAt(0), code.charAt(1), code.charAt(2)) : -1;
+        if (key < 0) {
+            throw new IllegalStateException("Not a three-letter currency code: " + code);
+        }
+        validCodes[key >>> 6] |= 1L << key;
+    }
 
-    public boolean isValid(String currencyCode) {
-        if (currencyCode == null || currencyCode.length() != 3) {
-            return false;
+    /** Key of a code in the 26³ table, or -1 if it is not three letters; shared with {@link FixedPoint}. */
+    static int key(char first, char second, char third) {
+        int a = letter(first);
+        int b = letter(second);
+        int c = letter(third);
+        if ((a | b | c) < 0) {
+            return -1;
         }
-        try {
-            Currency.getInstance(currencyCode.toUpperCase());
-            return true;
-        } catch (IllegalArgumentException e) {
-            return false;
+        return (a * LETTERS + b) * LETTERS + c;
+    }
+
+    private static int letter(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
         }
+        return -1;
     }
 
 
@@ -0,0 +1,127 @@
+package com.data.warehouse.utils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Currency;
+
+/**
+ * Amounts as a {@code long} count of minor units, {@code 10^-scale} each, where the scale is the number of
+ * fraction digits of the deal's currency ({@code 2} for USD, {@code 0} for JPY). Values that do not fit, because
+ * they have more fraction digits than the scale or overflow a {@code long}, are reported as {@link #NONE} and stay
+ * {@link BigDecimal}s.
+ */
+public final class FixedPoint {
+
+    /** Not representable; never a valid amount, as it is outside the range {@link #parse} produces. */
+    public static final long NONE = Long.MIN_VALUE;
+
+    private static final int DEFAULT_SCALE = 2;
+
+    /** Scale of every ISO 4217 code, indexed like {@link CurrencyUtil}'s 26³ table; computed once. */
+    private static final byte[] SCALES = new byte[CurrencyUtil.LETTERS * CurrencyUtil.LETTERS * CurrencyUtil.LETTERS];
+
+    static {
+        Arrays.fill(SCALES, (byte) DEFAULT_SCALE);
+        for (Currency currency : Currency.getAvailableCurrencies()) {
+            String code = currency.getCurrencyCode();
+            int key = code.length() == 3 ? CurrencyUtil.key(code.charAt(0), code.charAt(1), code.charAt(2)) : -1;
+            int digits = currency.getDefaultFractionDigits();
+            if (key >= 0 && digits >= 0) {
+                SCALES[key] = (byte) digits;
+            }
+        }
+    }
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Fraction digits of an ISO 4217 currency, {@code 0} for those without minor units such as JPY; {@code 2} for
+     * unknown codes and for pseudo-currencies such as XAU, which define no fraction digits. A table lookup: nothing
+     * is thrown or cached for codes that are not currencies.
+     */
+    public static int scale(String currency) {
+        if (currency == null || currency.length() != 3) {
+            return DEFAULT_SCALE;
+        }
+        int key = CurrencyUtil.key(currency.charAt(0), currency.charAt(1), currency.charAt(2));
+        return key < 0 ? DEFAULT_SCALE : SCALES[key];
+    }
+
+    /**
+     * Parses a plain decimal such as {@code -1234.5} without allocating. Surrounding blanks are ignored.
+     *
+     * @return the value in units of {@code 10^-scale}, or {@link #NONE} for anything else: exponents, more than
+     * {@code scale} fraction digits, or a value beyond the range of {@code long}
+     */
+    public static long parse(byte[] b, int from, int to, int scale) {
+        while (to > from && isBlank(b[to - 1])) {
+            to--;
+        }
+        while (from < to && isBlank(b[from])) {
+            from++;
+        }
+        int i = from;
+        boolean negative = false;
+        if (i < to && (b[i] == '-' || b[i] == '+')) {
+            negative = b[i] == '-';
+            i++;
+        }
+        long units = 0;
+        int digits = 0, fraction = -1;
+        for (; i < to; i++) {
+            int c = b[i];
+            if (c >= '0' && c <= '9') {
+                if (fraction >= 0 && ++fraction > scale) {
+                    return NONE;
+                }
+                int digit = c - '0';
+                if (units > (Long.MAX_VALUE - digit) / 10) {
+                    return NONE;
+                }
+                units = units * 10 + digit;
+                digits++;
+            } else if (c == '.' && fraction < 0) {
+                fraction = 0;
+            } else {
+                return NONE;
+            }
+        }
+        if (digits == 0) {
+            return NONE;
+        }
+        for (int f = Math.max(fraction, 0); f < scale; f++) {
+            if (units > Long.MAX_VALUE / 10) {
+                return NONE;
+            }
+            units *= 10;
+        }
+        return negative ? -units : units;
+    }
+
+    /**
+     * @return {@code value} in units of {@code 10^-scale} if it is exact at that scale and fits, {@link #NONE}
+     * otherwise
+     */
+    public static long units(BigDecimal value, int scale) {
+        if (value.scale() > scale) {
+            value = value.stripTrailingZeros();
+            if (value.scale() > scale) {
+                return NONE;
+            }
+        }
+        // only appends zeros, so never rounds
+        BigInteger units = value.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue();
+        return units.bitLength() < Long.SIZE ? units.longValue() : NONE;
+    }
+
+    public static BigDecimal toBigDecimal(long units, int scale) {
+        return BigDecimal.valueOf(units, scale);
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+}
@@ -0,0 +1,79 @@
+package com.data.warehouse.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file through read-only memory mappings of at most {@link #REGION_SIZE} bytes each, so the
+ * page cache is copied once into the caller's buffer instead of going through a channel read.
+ */
+public class MappedFileInputStream extends InputStream {
+
+    static final long REGION_SIZE = 256L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private long mapped;
+    private MappedByteBuffer region;
+
+    private MappedFileInputStream(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+    }
+
+    public static MappedFileInputStream open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new MappedFileInputStream(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        return nextRegion() ? region.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextRegion()) {
+            return -1;
+        }
+        int n = Math.min(len, region.remaining());
+        region.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return region == null ? 0 : region.remaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+        region = null;
+        channel.close();
+    }
+
+    private boolean nextRegion() throws IOException {
+        if (region != null && region.hasRemaining()) {
+            return true;
+        }
+        if (mapped >= size) {
+            return false;
+        }
+        long length = Math.min(REGION_SIZE, size - mapped);
+        region = channel.map(FileChannel.MapMode.READ_ONLY, mapped, length);
+        mapped += length;
+        return true;
+    }
+}
@@ -3,15 +3,16 @@ package com.data.warehouse.validator;
 
 import com.data.warehouse.config.MessageResolver;
 import com.data.warehouse.models.Deal;
+import com.data.warehouse.parser.DealColumns;
 import com.data.warehouse.utils.CurrencyUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.MessageSource;
 import org.springframework.stereotype.Component;
 import org.apache.commons.lang3.StringUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
 
 @Component
@@ -25,31 +26,108 @@ public class DealValidator {
 
 
     public String validate(Deal deal) {
+        RejectionReason reason = check(deal);
+        return reason == null ? null : messageSourceResolver.get(reason.getMessageKey());
+    }
+
+    /**
+     * Import hot path variant of {@link #validate(Deal)}: returns the reason code only and leaves
+     * resolving a message to whoever reports it.
+     */
+    public RejectionReason check(Deal deal) {
+        return check(deal, LocalDateTime.now());
+    }
+
+    /**
+     * Checks timestamps against the given {@code now}, so a whole chunk can share one clock reading.
+     */
+    public RejectionReason check(Deal deal, LocalDateTime now) {
         if (StringUtils.isBlank(deal.getDealId())) {
-            return messageSourceResolver.get("error.dealid.required");
+            return RejectionReason.DEAL_ID_REQUIRED;
         }
 
         if (StringUtils.isBlank(deal.getFromCurrency()) || !currencyUtil.isValid(deal.getFromCurrency())) {
-            log.warn("Invalid fromCurrency: {}", deal.getFromCurrency());
-            return messageSourceResolver.get("error.fromcurrency.invalid");
+            log.debug("Invalid fromCurrency: {}", deal.getFromCurrency());
+            return RejectionReason.FROM_CURRENCY_INVALID;
         }
 
         if (StringUtils.isBlank(deal.getToCurrency()) || !currencyUtil.isValid(deal.getToCurrency())) {
-            log.warn("Invalid toCurrency: {}", deal.getToCurrency());
-            return messageSourceResolver.get("error.tocurrency.invalid");
+            log.debug("Invalid toCurrency: {}", deal.getToCurrency());
+            return RejectionReason.TO_CURRENCY_INVALID;
         }
 
-        if (deal.getTimestamp() == null || deal.getTimestamp().isAfter(LocalDateTime.now())) {
-            log.warn("Invalid or future timestamp: {}", deal.getTimestamp());
-            return messageSourceResolver.get("error.timestamp.invalid");
+        if (deal.getTimestamp() == null || deal.getTimestamp().isAfter(now)) {
+            log.debug("Invalid or future timestamp: {}", deal.getTimestamp());
+            return RejectionReason.TIMESTAMP_INVALID;
         }
 
-        if (deal.getAmount() == null || deal.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            log.warn("Amount must be a positive number: {}", deal.getAmount());
-            return messageSourceResolver.get("error.amount.invalid");
+        boolean positive = deal.isScaledAmount()
+                ? deal.getAmountUnits() > 0
+                : deal.getAmount() != null && deal.getAmount().compareTo(BigDecimal.ZERO) > 0;
+        if (!positive) {
+            log.debug("Amount must be a positive number: {}", deal.getAmount());
+            return RejectionReason.AMOUNT_INVALID;
         }
 
         return null;
     }
 
+    /**
+     * {@link #check(Deal, LocalDateTime)} over every row of a chunk, straight on its columns.
+     *
+     * @return the reason each row is rejected for, {@code null} for valid rows
+     */
+    public RejectionReason[] check(DealColumns deals, LocalDateTime now) {
+        long nowSecond = now.toEpochSecond(ZoneOffset.UTC);
+        int nowNano = now.getNano();
+        RejectionReason[] reasons = new RejectionReason[deals.size()];
+        for (int row = 0; row < reasons.length; row++) {
+            reasons[row] = check(deals, row, nowSecond, nowNano);
+        }
+        return reasons;
+    }
+
+    private RejectionReason check(DealColumns deals, int row, long nowSecond, int nowNano) {
+        if (deals.isDealIdBlank(row)) {
+            return RejectionReason.DEAL_ID_REQUIRED;
+        }
+
+        if (!isValidCurrency(deals.fromCurrencyKey(row), deals.fromCurrency(row))) {
+            log.debug("Invalid fromCurrency: {}", deals.fromCurrency(row));
+            return RejectionReason.FROM_CURRENCY_INVALID;
+        }
+
+        if (!isValidCurrency(deals.toCurrencyKey(row), deals.toCurrency(row))) {
+            log.debug("Invalid toCurrency: {}", deals.toCurrency(row));
+            return RejectionReason.TO_CURRENCY_INVALID;
+        }
+
+        long second = deals.epochSecond(row);
+        if (!deals.hasTimestamp(row) || second > nowSecond || (second == nowSecond && deals.nano(row) > nowNano)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Invalid or future timestamp: {}", deals.timestamp(row));
+            }
+            return RejectionReason.TIMESTAMP_INVALID;
+        }
+
+        boolean positive = deals.isScaledAmount(row)
+                ? deals.amountUnits(row) > 0
+                : deals.amount(row) != null && deals.amount(row).compareTo(BigDecimal.ZERO) > 0;
+        if (!positive) {
+            if (log.isDebugEnabled()) {
+                log.debug("Amount must be a positive number: {}", deals.amount(row));
+            }
+            return RejectionReason.AMOUNT_INVALID;
+        }
+
+        return null;
+    }
+
+    private boolean isValidCurrency(short key, String code) {
+        if (key != DealColumns.OTHER_CURRENCY) {
+            return currencyUtil.isValid(key);
+        }
+        return !StringUtils.isBlank(code) && currencyUtil.isValid(code);
+    }
+
 }
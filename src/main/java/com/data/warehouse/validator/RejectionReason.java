@@ -0,0 +1,24 @@
+package com.data.warehouse.validator;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum RejectionReason {
+
+    DEAL_ID_REQUIRED("error.dealid.required"),
+    FROM_CURRENCY_INVALID("error.fromcurrency.invalid"),
+    TO_CURRENCY_INVALID("error.tocurrency.invalid"),
+    TIMESTAMP_INVALID("error.timestamp.invalid"),
+    AMOUNT_INVALID("error.amount.invalid"),
+    DUPLICATE_IN_FILE("error.deal.duplicate.file"),
+    DUPLICATE_IN_BATCH("error.deal.duplicate.batch"),
+    DUPLICATE("error.deal.duplicate");
+
+    private final String messageKey;
+
+    public boolean isDuplicate() {
+        return this == DUPLICATE_IN_FILE || this == DUPLICATE_IN_BATCH || this == DUPLICATE;
+    }
+}
@@ -0,0 +1,38 @@
+-- Schema as it stood when it was still generated by Hibernate (ddl-auto: update). Databases created that way are
+-- baselined at version 0 and run this too, which only adds what an older ddl-auto schema lacks.
+
+CREATE TABLE IF NOT EXISTS deals (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    deal_id       VARCHAR(255)   NOT NULL UNIQUE,
+    from_currency VARCHAR(3)     NOT NULL,
+    to_currency   VARCHAR(3)     NOT NULL,
+    timestamp     TIMESTAMP(6)   NOT NULL,
+    amount        NUMERIC(38, 2) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_deals_timestamp_id ON deals (timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_deals_pair_timestamp_id ON deals (from_currency, to_currency, timestamp, id);
+
+CREATE TABLE IF NOT EXISTS import_checkpoints (
+    job_id         VARCHAR(36)              NOT NULL PRIMARY KEY,
+    file_name      VARCHAR(255),
+    source_path    VARCHAR(4096)            NOT NULL,
+    owns_source    BOOLEAN                  NOT NULL,
+    rows_committed BIGINT                   NOT NULL,
+    saved          BIGINT                   NOT NULL,
+    duplicates     BIGINT                   NOT NULL,
+    invalid        BIGINT                   NOT NULL,
+    status         VARCHAR(16)              NOT NULL CHECK (status IN ('RUNNING', 'FAILED')),
+    updated_at     TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS deal_rollups (
+    from_currency VARCHAR(3)     NOT NULL,
+    to_currency   VARCHAR(3)     NOT NULL,
+    bucket        TIMESTAMP(6)   NOT NULL,
+    deal_count    BIGINT         NOT NULL,
+    amount_sum    NUMERIC(38, 2) NOT NULL,
+    amount_min    NUMERIC(38, 2) NOT NULL,
+    amount_max    NUMERIC(38, 2) NOT NULL,
+    PRIMARY KEY (from_currency, to_currency, bucket)
+);
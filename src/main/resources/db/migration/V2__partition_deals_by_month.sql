@@ -0,0 +1,84 @@
+-- Range-partitions deals by month of timestamp. A partitioned table cannot have a unique index on deal_id alone, so
+-- every deal_id is registered in deal_ids by a trigger instead: an insert whose deal_id is already taken is skipped,
+-- which is what ON CONFLICT (deal_id) DO NOTHING used to do. Monthly partitions are created ahead of the data by the
+-- application; rows without one land in deals_default until their partition is created.
+
+ALTER TABLE deals RENAME TO deals_unpartitioned;
+ALTER SEQUENCE IF EXISTS deals_id_seq RENAME TO deals_unpartitioned_id_seq;
+ALTER INDEX IF EXISTS idx_deals_timestamp_id RENAME TO idx_deals_unpartitioned_timestamp_id;
+ALTER INDEX IF EXISTS idx_deals_pair_timestamp_id RENAME TO idx_deals_unpartitioned_pair_timestamp_id;
+
+CREATE TABLE deals (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    deal_id       VARCHAR(255)   NOT NULL,
+    from_currency VARCHAR(3)     NOT NULL,
+    to_currency   VARCHAR(3)     NOT NULL,
+    timestamp     TIMESTAMP(6)   NOT NULL,
+    amount        NUMERIC(38, 2) NOT NULL,
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+DO $$
+DECLARE
+    month DATE;
+BEGIN
+    FOR month IN SELECT DISTINCT date_trunc('month', timestamp)::date FROM deals_unpartitioned LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF deals FOR VALUES FROM (%L) TO (%L)',
+                       'deals_p' || to_char(month, 'YYYY_MM'), month, (month + INTERVAL '1 month')::date);
+    END LOOP;
+END
+$$;
+
+CREATE TABLE deals_default PARTITION OF deals DEFAULT;
+
+INSERT INTO deals (id, deal_id, from_currency, to_currency, timestamp, amount)
+SELECT id, deal_id, from_currency, to_currency, timestamp, amount FROM deals_unpartitioned;
+
+SELECT setval(pg_get_serial_sequence('deals', 'id'), COALESCE((SELECT MAX(id) FROM deals), 0) + 1, false);
+
+DROP TABLE deals_unpartitioned;
+
+CREATE INDEX idx_deals_timestamp_id ON deals (timestamp, id);
+CREATE INDEX idx_deals_pair_timestamp_id ON deals (from_currency, to_currency, timestamp, id);
+
+CREATE TABLE deal_ids (
+    deal_id VARCHAR(255) NOT NULL PRIMARY KEY
+);
+
+INSERT INTO deal_ids (deal_id) SELECT deal_id FROM deals;
+
+CREATE FUNCTION register_deal_id() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    INSERT INTO deal_ids (deal_id) VALUES (NEW.deal_id) ON CONFLICT DO NOTHING;
+    IF NOT FOUND THEN
+        RETURN NULL;
+    END IF;
+    RETURN NEW;
+END
+$$;
+
+-- Also fires when an update moves a row to another partition, after release_deal_id has freed the id.
+CREATE TRIGGER deals_register_deal_id BEFORE INSERT ON deals
+    FOR EACH ROW EXECUTE FUNCTION register_deal_id();
+
+-- Skipped while the application moves rows out of deals_default into a new partition.
+CREATE FUNCTION release_deal_id() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF current_setting('warehouse.moving_deals', true) IS DISTINCT FROM 'on' THEN
+        DELETE FROM deal_ids WHERE deal_id = OLD.deal_id;
+    END IF;
+    RETURN OLD;
+END
+$$;
+
+CREATE TRIGGER deals_release_deal_id BEFORE DELETE ON deals
+    FOR EACH ROW EXECUTE FUNCTION release_deal_id();
+
+CREATE FUNCTION reject_deal_id_change() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    RAISE EXCEPTION 'deal_id of a stored deal cannot be changed';
+END
+$$;
+
+CREATE TRIGGER deals_keep_deal_id BEFORE UPDATE OF deal_id ON deals
+    FOR EACH ROW WHEN (NEW.deal_id IS DISTINCT FROM OLD.deal_id) EXECUTE FUNCTION reject_deal_id_change();
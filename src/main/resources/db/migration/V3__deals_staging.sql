@@ -0,0 +1,16 @@
+-- Landing table of the COPY loader. Every load copies its rows in under its own load_id and moves them into deals in
+-- the same transaction, so the table is empty outside of running loads; unlogged, as nothing in it has to survive a
+-- crash. The amount is rounded once, on its way into deals.
+CREATE UNLOGGED TABLE deals_staging (
+    load_id       UUID         NOT NULL,
+    deal_id       VARCHAR(255) NOT NULL,
+    from_currency VARCHAR(3)   NOT NULL,
+    to_currency   VARCHAR(3)   NOT NULL,
+    timestamp     TIMESTAMP(6) NOT NULL,
+    amount        NUMERIC      NOT NULL
+);
+
+CREATE INDEX idx_deals_staging_load_id ON deals_staging (load_id);
+
+-- Resumed jobs keep the loader they were started with.
+ALTER TABLE import_checkpoints ADD COLUMN loader VARCHAR(16) CHECK (loader IN ('INSERT', 'COPY'));
@@ -0,0 +1,38 @@
+package com.data.warehouse;
+
+import com.data.warehouse.utils.CurrencyUtil;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrencyUtilTest {
+
+    private final CurrencyUtil fileCurrencies = new CurrencyUtil(CurrencyUtil.Source.FILE);
+    private final CurrencyUtil isoCurrencies = new CurrencyUtil(CurrencyUtil.Source.ISO);
+
+    @Test
+    void acceptsListedCodesInAnyCase() {
+        assertTrue(fileCurrencies.isValid("USD"));
+        assertTrue(fileCurrencies.isValid("eur"));
+        assertTrue(fileCurrencies.isValid("Jpy"));
+    }
+
+    @Test
+    void rejectsMalformedCodes() {
+        assertFalse(fileCurrencies.isValid(null));
+        assertFalse(fileCurrencies.isValid(""));
+        assertFalse(fileCurrencies.isValid("USDX"));
+        assertFalse(fileCurrencies.isValid("US"));
+        assertFalse(fileCurrencies.isValid("U5D"));
+        assertFalse(fileCurrencies.isValid("ÜSD"));
+        assertFalse(fileCurrencies.isValid("ZZZ"));
+    }
+
+    @Test
+    void sourceSelectsTheAllowList() {
+        assertFalse(fileCurrencies.isValid("XXX"));
+        assertTrue(isoCurrencies.isValid("XXX"));
+        assertTrue(isoCurrencies.isValid("ISK"));
+        assertFalse(isoCurrencies.isValid("ZZZ"));
+    }
+}
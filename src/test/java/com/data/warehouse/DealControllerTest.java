@@ -3,8 +3,17 @@ package com.data.warehouse;
 
 
 import com.data.warehouse.controller.DealController;
+import com.data.warehouse.dto.BatchResultsDto;
+import com.data.warehouse.dto.FileResultDto;
+import com.data.warehouse.dto.ImportLoader;
 import com.data.warehouse.dto.ResultsDto;
+import com.data.warehouse.services.BatchImportService;
 import com.data.warehouse.services.DealService;
+import com.data.warehouse.services.ImportJob;
+import com.data.warehouse.services.ImportJobService;
+import com.data.warehouse.services.LocalImportSource;
+import com.data.warehouse.services.UploadExecutor;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,12 +21,24 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 
@@ -32,6 +53,24 @@ public class DealControllerTest {
     @MockBean
     private DealService dealService;
 
+    @MockBean
+    private ImportJobService importJobService;
+
+    @MockBean
+    private LocalImportSource localImportSource;
+
+    @MockBean
+    private UploadExecutor uploadExecutor;
+
+    @MockBean
+    private BatchImportService batchImportService;
+
+    @BeforeEach
+    void runUploadsInline() {
+        Mockito.when(uploadExecutor.submit(any())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(invocation.<Callable<?>>getArgument(0).call()));
+    }
+
     @Test
     void importDeals_shouldReturnResultsDto() throws Exception {
         MockMultipartFile mockFile = new MockMultipartFile(
@@ -39,10 +78,119 @@ public class DealControllerTest {
         );
 
         ResultsDto mockResult = new ResultsDto(50, 20, 3, List.of("row1", "row2"));
-        Mockito.when(dealService.importCsv(any())).thenReturn(mockResult);
+        Mockito.when(dealService.importCsv(any(), isNull())).thenReturn(mockResult);
 
-        mockMvc.perform(multipart("/api/import").file(mockFile))
+        MvcResult result = mockMvc.perform(multipart("/api/import").file(mockFile))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
     }
+
+    @Test
+    void importDeals_shouldPassTheChosenLoader() throws Exception {
+        MockMultipartFile mockFile = new MockMultipartFile("file", "deals.csv", "text/csv", "a".getBytes());
+        Mockito.when(dealService.importCsv(any(), eq(ImportLoader.COPY))).thenReturn(new ResultsDto(1, 0, 0, List.of()));
+
+        MvcResult result = mockMvc.perform(multipart("/api/import").file(mockFile).param("loader", "COPY"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saved").value(1));
+
+        mockMvc.perform(multipart("/api/import").file(mockFile).param("loader", "bulk"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importDeals_shouldRejectWhenUploadsAreSaturated() throws Exception {
+        MockMultipartFile mockFile = new MockMultipartFile(
+                "file", "deals.csv", "text/csv", "some,csv,content\n1,2,3".getBytes()
+        );
+        Mockito.doThrow(new RejectedExecutionException("Too many uploads in progress, please retry later"))
+                .when(uploadExecutor).submit(any());
+
+        mockMvc.perform(multipart("/api/import").file(mockFile))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void importBatch_shouldReturnPerFileAndTotalResults() throws Exception {
+        MockMultipartFile first = new MockMultipartFile("files", "a.csv", "text/csv", "a".getBytes());
+        MockMultipartFile second = new MockMultipartFile("files", "b.zip", "application/zip", "b".getBytes());
+        Mockito.when(batchImportService.importBatch(any(), isNull())).thenReturn(new BatchResultsDto(
+                List.of(new FileResultDto("a.csv", new ResultsDto(2, 0, 0, List.of()), null),
+                        new FileResultDto("b.zip", null, "Not a readable ZIP archive")),
+                new ResultsDto(2, 0, 0, List.of())));
+
+        MvcResult result = mockMvc.perform(multipart("/api/import/batch").file(first).file(second))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.files[0].result.saved").value(2))
+                .andExpect(jsonPath("$.files[1].error").value("Not a readable ZIP archive"))
+                .andExpect(jsonPath("$.total.saved").value(2));
+    }
+
+    @Test
+    void submitImport_shouldReturnAcceptedJob() throws Exception {
+        MockMultipartFile mockFile = new MockMultipartFile(
+                "file", "deals.csv", "text/csv", "some,csv,content\n1,2,3".getBytes()
+        );
+
+        ImportJob job = new ImportJob("job-1", "deals.csv");
+        Mockito.when(importJobService.submit(any(MultipartFile.class), isNull())).thenReturn(job);
+
+        mockMvc.perform(multipart("/api/import/jobs").file(mockFile))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/import/jobs/job-1"))
+                .andExpect(jsonPath("$.id").value("job-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    void resumeImport_shouldReturnAcceptedJob() throws Exception {
+        Mockito.when(importJobService.resume("job-1")).thenReturn(new ImportJob("job-1", "deals.csv"));
+
+        mockMvc.perform(post("/api/import/jobs/job-1/resume"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/import/jobs/job-1"));
+    }
+
+    @Test
+    void getImport_shouldReturnNotFoundForUnknownJob() throws Exception {
+        Mockito.when(importJobService.find("missing")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/import/jobs/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void importLocalDeals_shouldImportResolvedPath() throws Exception {
+        Path file = Path.of("/data/deals/eod.csv");
+        Mockito.when(localImportSource.resolve("eod.csv")).thenReturn(file);
+        Mockito.when(dealService.importFile(file, (ImportLoader) null)).thenReturn(new ResultsDto(1, 0, 0, List.of()));
+
+        MvcResult result = mockMvc.perform(post("/api/import/local").param("path", "eod.csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saved").value(1));
+    }
+
+    @Test
+    void importLocalDeals_shouldRejectPathOutsideBaseDir() throws Exception {
+        Mockito.when(localImportSource.resolve("../etc/passwd"))
+                .thenThrow(new IllegalArgumentException("No CSV file [../etc/passwd] in the import directory"));
+
+        mockMvc.perform(post("/api/import/local").param("path", "../etc/passwd"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,94 @@
+package com.data.warehouse;
+
+import com.data.warehouse.models.Deal;
+import com.data.warehouse.parser.DealColumns;
+import com.data.warehouse.repository.DealBatchRepository;
+import com.data.warehouse.repository.DealCopyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "warehouse.import.id-filter.enabled=false")
+class DealCopyRepositoryTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 3, 5, 0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DealBatchRepository dealBatchRepository;
+
+    @Autowired
+    private DealCopyRepository dealCopyRepository;
+
+    @AfterEach
+    void deleteTestDeals() {
+        jdbcTemplate.update("DELETE FROM deals WHERE deal_id LIKE 'COPY-%'");
+    }
+
+    @Test
+    void storesWhatTheInsertPathStores() {
+        transactionTemplate.executeWithoutResult(tx -> dealBatchRepository.insertIgnoringDuplicates(
+                DealColumns.of(List.of(deal("COPY-1", "USD", DAY, "1.00")))));
+        List<Deal> deals = List.of(
+                deal("COPY-1", "USD", DAY.plusHours(1), "2.00"),
+                deal("COPY-2\t\"\\\n€", "USD", DAY.plusNanos(999_999_500), "1000.5"),
+                deal("COPY-3", "JPY", DAY, "50000"),
+                new Deal(null, "COPY-4", "BHD", "EUR", DAY, new BigDecimal("0.125")));
+
+        Set<String> copied = transactionTemplate.execute(tx -> dealCopyRepository.copyIgnoringDuplicates(DealColumns.of(deals)));
+
+        assertEquals(Set.of("COPY-2\t\"\\\n€", "COPY-3", "COPY-4"), copied);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM deals_staging", Integer.class));
+        Map<String, Object> escaped = jdbcTemplate.queryForMap(
+                "SELECT timestamp, amount FROM deals WHERE deal_id = ?", "COPY-2\t\"\\\n€");
+        assertEquals(DAY.plusSeconds(1), ((Timestamp) escaped.get("timestamp")).toLocalDateTime());
+        assertEquals(new BigDecimal("1000.50"), escaped.get("amount"));
+        assertEquals(new BigDecimal("0.13"), jdbcTemplate.queryForObject(
+                "SELECT amount FROM deals WHERE deal_id = 'COPY-4'", BigDecimal.class));
+        assertEquals(new BigDecimal("1.00"), jdbcTemplate.queryForObject(
+                "SELECT amount FROM deals WHERE deal_id = 'COPY-1'", BigDecimal.class));
+    }
+
+    @Test
+    void keepsLocalTimesInADaylightSavingGapOnBothPaths() {
+        // 02:30 does not exist in Berlin on that day; a java.sql.Timestamp would shift it to 03:30
+        LocalDateTime gap = LocalDateTime.of(2024, 3, 31, 2, 30);
+        TimeZone jvmZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Berlin"));
+        try {
+            transactionTemplate.executeWithoutResult(tx -> dealBatchRepository.insertIgnoringDuplicates(
+                    DealColumns.of(List.of(deal("COPY-GAP-INSERT", "USD", gap, "1.00")))));
+            transactionTemplate.executeWithoutResult(tx -> dealCopyRepository.copyIgnoringDuplicates(
+                    DealColumns.of(List.of(deal("COPY-GAP-COPY", "USD", gap, "1.00")))));
+        } finally {
+            TimeZone.setDefault(jvmZone);
+        }
+
+        assertEquals(List.of("2024-03-31 02:30:00", "2024-03-31 02:30:00"), jdbcTemplate.queryForList(
+                "SELECT timestamp::text FROM deals WHERE deal_id LIKE 'COPY-GAP-%' ORDER BY deal_id", String.class));
+    }
+
+    private static Deal deal(String dealId, String from, LocalDateTime timestamp, String amount) {
+        Deal deal = new Deal(null, dealId, from, "EUR", timestamp, null);
+        deal.setAmountAtCurrencyScale(new BigDecimal(amount));
+        return deal;
+    }
+}
@@ -0,0 +1,81 @@
+package com.data.warehouse;
+
+import com.data.warehouse.dto.ExportFilterDto;
+import com.data.warehouse.dto.ExportFormat;
+import com.data.warehouse.models.Deal;
+import com.data.warehouse.repository.DealExportRepository;
+import com.data.warehouse.repository.DealRepository;
+import com.data.warehouse.services.DealExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({DealExportService.class, DealExportRepository.class})
+class DealExportServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 5, 31, 10, 0);
+
+    @Autowired
+    private DealRepository dealRepository;
+
+    @Autowired
+    private DealExportService dealExportService;
+
+    @BeforeEach
+    void storeDeals() {
+        dealRepository.saveAll(List.of(
+                new Deal(null, "E2", "USD", "EUR", START.plusHours(1), new BigDecimal("20.50")),
+                new Deal(null, "E1", "USD", "EUR", START, new BigDecimal("1000.00")),
+                new Deal(null, "E,3", "USD", "EUR", START.plusHours(2), new BigDecimal("3.25")),
+                new Deal(null, "E4", "GBP", "USD", START, new BigDecimal("7.00"))));
+    }
+
+    @Test
+    void exportsFilteredCsvInTimestampOrder() throws IOException {
+        ExportFilterDto filter = new ExportFilterDto();
+        filter.setFromCurrency("usd");
+        filter.setTo(START.plusHours(2).plusSeconds(1));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(3, dealExportService.export(filter, out));
+        assertEquals("""
+                dealId,fromCurrency,toCurrency,timestamp,amount
+                E1,USD,EUR,2025-05-31T10:00:00,1000.00
+                E2,USD,EUR,2025-05-31T11:00:00,20.50
+                "E,3",USD,EUR,2025-05-31T12:00:00,3.25
+                """, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportsGzippedNdjson() throws IOException {
+        ExportFilterDto filter = new ExportFilterDto();
+        filter.setFromCurrency("GBP");
+        filter.setFormat(ExportFormat.NDJSON);
+        filter.setGzip(true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        dealExportService.export(filter, out);
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals("{\"dealId\":\"E4\",\"fromCurrency\":\"GBP\",\"toCurrency\":\"USD\","
+                            + "\"timestamp\":\"2025-05-31T10:00:00\",\"amount\":7.00}\n",
+                    new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
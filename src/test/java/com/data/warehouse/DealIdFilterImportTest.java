@@ -0,0 +1,71 @@
+package com.data.warehouse;
+
+import com.data.warehouse.dto.ResultsDto;
+import com.data.warehouse.parser.DealColumns;
+import com.data.warehouse.repository.DealBatchRepository;
+import com.data.warehouse.repository.DealRollupRepository;
+import com.data.warehouse.repository.DealRepository;
+import com.data.warehouse.services.DealIdFilter;
+import com.data.warehouse.services.DealService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = "warehouse.import.id-filter.expected-ids=1000")
+class DealIdFilterImportTest {
+
+    @Autowired
+    private DealService dealService;
+
+    @Autowired
+    private DealIdFilter dealIdFilter;
+
+    @MockitoBean
+    private DealRepository dealRepository;
+
+    @MockitoBean
+    private DealBatchRepository dealBatchRepository;
+
+    @MockitoBean
+    private DealRollupRepository dealRollupRepository;
+
+    @Test
+    void onlyProbableHitsAreLookedUp() throws IOException {
+        dealIdFilter.warm();
+        when(dealBatchRepository.insertIgnoringDuplicates(any(DealColumns.class))).thenAnswer(invocation -> {
+            DealColumns deals = invocation.getArgument(0);
+            return deals.dealIds().stream().filter(id -> !id.equals("F002")).collect(Collectors.toSet());
+        });
+        when(dealRepository.findExistingDealIds(anyCollection())).thenReturn(Set.of("F001"));
+
+        ResultsDto first = dealService.importCsv(csv("F001", "F002"));
+
+        verify(dealRepository, never()).findExistingDealIds(anyCollection());
+        assertEquals(1, first.getSaved());
+        assertEquals(1, first.getDuplicates());
+
+        ResultsDto second = dealService.importCsv(csv("F001", "F003"));
+
+        verify(dealRepository).findExistingDealIds(List.of("F001"));
+        assertEquals(1, second.getSaved());
+        assertEquals(1, second.getDuplicates());
+    }
+
+    private static MockMultipartFile csv(String... dealIds) {
+        StringBuilder csv = new StringBuilder("dealId,fromCurrency,toCurrency,timestamp,amount\n");
+        for (String dealId : dealIds) {
+            csv.append(dealId).append(",USD,EUR,2025-05-31T10:15:30,1000.50\n");
+        }
+        return new MockMultipartFile("file", "filter.csv", "text/csv", csv.toString().getBytes());
+    }
+}
@@ -0,0 +1,73 @@
+package com.data.warehouse;
+
+import com.data.warehouse.config.ImportProperties;
+import com.data.warehouse.services.DealIdFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DealIdFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void answersMaybeUntilWarmed() {
+        DealIdFilter filter = filter(true);
+
+        assertFalse(filter.isReady());
+        assertTrue(filter.mightContain("D001"));
+
+        filter.warm();
+
+        assertTrue(filter.isReady());
+        assertFalse(filter.mightContain("D001"));
+    }
+
+    @Test
+    void neverForgetsAddedIdsAndKeepsTheFalsePositiveRate() {
+        DealIdFilter filter = filter(true);
+        filter.warm();
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("D" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("D" + i));
+            if (filter.mightContain("N" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+        assertEquals(10_000 - falsePositives,
+                meterRegistry.get("deals.idfilter.checks").tag("result", "negative").counter().count());
+        assertEquals(12_000, meterRegistry.get("deals.idfilter.size").gauge().value(), 100);
+    }
+
+    @Test
+    void staysOutOfTheWayWhenDisabled() {
+        DealIdFilter filter = filter(false);
+        filter.warm();
+        filter.add("D001");
+
+        assertFalse(filter.isEnabled());
+        assertFalse(filter.isReady());
+        assertTrue(filter.mightContain("D002"));
+        assertEquals(0, meterRegistry.get("deals.idfilter.size").gauge().value());
+    }
+
+    private DealIdFilter filter(boolean enabled) {
+        ImportProperties properties = new ImportProperties();
+        properties.getIdFilter().setEnabled(enabled);
+        properties.getIdFilter().setExpectedIds(10_000);
+        properties.getIdFilter().setFalsePositiveRate(0.01);
+        return new DealIdFilter(Mockito.mock(JdbcTemplate.class), Mockito.mock(PlatformTransactionManager.class),
+                properties, meterRegistry);
+    }
+}
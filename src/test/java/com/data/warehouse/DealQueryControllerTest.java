@@ -0,0 +1,146 @@
+package com.data.warehouse;
+
+import com.data.warehouse.controller.DealQueryController;
+import com.data.warehouse.dto.DealFilterDto;
+import com.data.warehouse.dto.DealPageDto;
+import com.data.warehouse.dto.ExportFilterDto;
+import com.data.warehouse.models.Deal;
+import com.data.warehouse.dto.RollupDto;
+import com.data.warehouse.dto.RollupFilterDto;
+import com.data.warehouse.dto.RollupGranularity;
+import com.data.warehouse.dto.ExportFormat;
+import com.data.warehouse.services.DealExportService;
+import com.data.warehouse.services.DealQueryService;
+import com.data.warehouse.services.DealRollupService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(DealQueryController.class)
+class DealQueryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private DealQueryService dealQueryService;
+
+    @MockBean
+    private DealRollupService dealRollupService;
+
+    @MockBean
+    private DealExportService dealExportService;
+
+    @Test
+    void findDeals_shouldBindFiltersAndReturnPage() throws Exception {
+        Deal deal = new Deal(7L, "D001", "USD", "EUR", LocalDateTime.of(2025, 5, 31, 10, 15), new BigDecimal("1000.50"));
+        Mockito.when(dealQueryService.find(any())).thenReturn(new DealPageDto(List.of(deal), "next"));
+
+        mockMvc.perform(get("/api/deals")
+                        .param("fromCurrency", "USD")
+                        .param("toCurrency", "EUR")
+                        .param("from", "2025-05-01T00:00:00")
+                        .param("minAmount", "100")
+                        .param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deals[0].dealId").value("D001"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        ArgumentCaptor<DealFilterDto> filter = ArgumentCaptor.forClass(DealFilterDto.class);
+        Mockito.verify(dealQueryService).find(filter.capture());
+        assertEquals("USD", filter.getValue().getFromCurrency());
+        assertEquals(LocalDateTime.of(2025, 5, 1, 0, 0), filter.getValue().getFrom());
+        assertEquals(new BigDecimal("100"), filter.getValue().getMinAmount());
+        assertEquals(50, filter.getValue().getLimit());
+    }
+
+    @Test
+    void findDeals_shouldReturnOnlyTheDealFields() throws Exception {
+        Deal deal = new Deal(7L, "D001", "USD", "EUR", LocalDateTime.of(2025, 5, 31, 10, 15), null);
+        deal.setAmountAtCurrencyScale(new BigDecimal("1000.50"));
+        Mockito.when(dealQueryService.find(any())).thenReturn(new DealPageDto(List.of(deal), null));
+
+        String body = mockMvc.perform(get("/api/deals"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deals[0].amount").value(1000.50))
+                .andReturn().getResponse().getContentAsString();
+
+        Set<String> fields = new HashSet<>();
+        objectMapper.readTree(body).get("deals").get(0).fieldNames().forEachRemaining(fields::add);
+        assertEquals(Set.of("id", "dealId", "fromCurrency", "toCurrency", "timestamp", "amount"), fields);
+    }
+
+    @Test
+    void findDeals_shouldRejectMalformedParameters() throws Exception {
+        mockMvc.perform(get("/api/deals").param("from", "yesterday"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid value for parameter 'from'"));
+    }
+
+    @Test
+    void findRollups_shouldBindGranularity() throws Exception {
+        RollupDto rollup = new RollupDto("USD", "EUR", LocalDateTime.of(2025, 5, 31, 10, 0), 2,
+                new BigDecimal("300.00"), new BigDecimal("100.00"), new BigDecimal("200.00"));
+        Mockito.when(dealRollupService.find(any())).thenReturn(List.of(rollup));
+
+        mockMvc.perform(get("/api/deals/rollups").param("granularity", "HOUR").param("fromCurrency", "USD"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].count").value(2))
+                .andExpect(jsonPath("$[0].sum").value(300.00));
+
+        ArgumentCaptor<RollupFilterDto> filter = ArgumentCaptor.forClass(RollupFilterDto.class);
+        Mockito.verify(dealRollupService).find(filter.capture());
+        assertEquals(RollupGranularity.HOUR, filter.getValue().getGranularity());
+        assertEquals("USD", filter.getValue().getFromCurrency());
+    }
+
+    @Test
+    void rebuildRollups_shouldReturnBucketCount() throws Exception {
+        Mockito.when(dealRollupService.rebuild()).thenReturn(42);
+
+        mockMvc.perform(post("/api/deals/rollups/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.buckets").value(42));
+    }
+
+    @Test
+    void exportDeals_shouldStreamAttachment() throws Exception {
+        Mockito.when(dealExportService.export(any(), any())).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write("{}\n".getBytes());
+            return 1L;
+        });
+
+        mockMvc.perform(get("/api/deals/export").param("format", "NDJSON").param("gzip", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/gzip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"deals.ndjson.gz\""))
+                .andExpect(content().string("{}\n"));
+
+        ArgumentCaptor<ExportFilterDto> filter = ArgumentCaptor.forClass(ExportFilterDto.class);
+        Mockito.verify(dealExportService).export(filter.capture(), any());
+        assertEquals(ExportFormat.NDJSON, filter.getValue().getFormat());
+        assertTrue(filter.getValue().isGzip());
+    }
+}
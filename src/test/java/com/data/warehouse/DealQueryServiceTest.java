@@ -0,0 +1,78 @@
+package com.data.warehouse;
+
+import com.data.warehouse.config.MessageResolver;
+import com.data.warehouse.config.Messages;
+import com.data.warehouse.dto.DealFilterDto;
+import com.data.warehouse.dto.DealPageDto;
+import com.data.warehouse.models.Deal;
+import com.data.warehouse.repository.DealRepository;
+import com.data.warehouse.services.DealQueryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({DealQueryService.class, MessageResolver.class, Messages.class})
+class DealQueryServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 5, 1, 0, 0);
+
+    @Autowired
+    private DealRepository dealRepository;
+
+    @Autowired
+    private DealQueryService dealQueryService;
+
+    @BeforeEach
+    void storeDeals() {
+        List<Deal> deals = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            deals.add(new Deal(null, "Q" + i, i % 2 == 0 ? "USD" : "GBP", "EUR",
+                    START.plusHours(i / 3), BigDecimal.valueOf(100L * (i + 1))));
+        }
+        dealRepository.saveAll(deals);
+    }
+
+    @Test
+    void pagesThroughFilteredDealsInKeysetOrder() {
+        DealFilterDto filter = new DealFilterDto();
+        filter.setFromCurrency("usd");
+        filter.setToCurrency("EUR");
+        filter.setFrom(START.plusHours(1));
+        filter.setMaxAmount(BigDecimal.valueOf(2500));
+        filter.setLimit(4);
+
+        List<String> seen = new ArrayList<>();
+        DealPageDto page;
+        do {
+            page = dealQueryService.find(filter);
+            page.getDeals().forEach(deal -> seen.add(deal.getDealId()));
+            filter.setAfter(page.getNextCursor());
+        } while (page.getNextCursor() != null);
+
+        // hours 1..8 (ids 3..24), even ids only (USD), amount <= 2500 (ids < 25)
+        assertEquals(List.of("Q4", "Q6", "Q8", "Q10", "Q12", "Q14", "Q16", "Q18", "Q20", "Q22", "Q24"), seen);
+    }
+
+    @Test
+    void rejectsBadLimitsAndCursors() {
+        DealFilterDto filter = new DealFilterDto();
+        filter.setLimit(DealQueryService.MAX_LIMIT + 1);
+        assertThrows(IllegalArgumentException.class, () -> dealQueryService.find(filter));
+
+        filter.setLimit(null);
+        filter.setAfter("not-a-cursor");
+        assertThrows(IllegalArgumentException.class, () -> dealQueryService.find(filter));
+    }
+}
@@ -0,0 +1,142 @@
+package com.data.warehouse;
+
+import com.data.warehouse.dto.DealsDto;
+import com.data.warehouse.models.Deal;
+import com.data.warehouse.parser.DealColumns;
+import com.data.warehouse.parser.DealRowParser;
+import com.data.warehouse.parser.MalformedRowException;
+import com.data.warehouse.parser.RowChunk;
+import com.data.warehouse.parser.RowChunkReader;
+import com.opencsv.bean.CsvToBeanBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DealRowParserTest {
+
+    @Test
+    void matchesTheOpenCsvBinding() throws IOException {
+        String csv = DealRowParser.HEADER + "\r\n"
+                + "D001,usd,Eur,2025-05-31T10:15,1000.50\r\n"
+                + "D002,GBP,USD,2025-05-30T14:00:00.123,-2500.75\n"
+                + "\"D0,03\",EUR,JPY,2025-05-29T09:45:00.000000001,50000\n"
+                + "\"D\"\"004\",CAD,USD,2025-05-28T16:30:00, 1e3\n"
+                + "  \"D005\",CHF,\"EUR\",2025-05-28T16:30:00,12345678901234567890.5\n"
+                + "\"D0\n06\",CHF,EUR,+12025-05-28T16:30:00,0.001";
+
+        for (int rowsPerChunk : new int[]{1, 2, 1000}) {
+            assertEquals(openCsv(csv), fixedLayout(csv, rowsPerChunk));
+        }
+    }
+
+    @Test
+    void parsesCommonShapesWithoutLosingPrecision() {
+        byte[] row = "2024-02-29T23:59:59.5".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(LocalDateTime.of(2024, 2, 29, 23, 59, 59, 500_000_000),
+                fixedLayout(DealRowParser.HEADER + "\nD1,USD,EUR," + new String(row) + ",1.10", 10).get(0).getTimestamp());
+        Deal deal = fixedLayout(DealRowParser.HEADER + "\nD1,USD,EUR,2024-01-01T00:00,1.10", 10).get(0);
+        assertEquals(new BigDecimal("1.10"), deal.getAmount());
+        assertTrue(deal.isScaledAmount());
+    }
+
+    @Test
+    void rejectsRowsThatDoNotFitTheLayout() {
+        assertThrows(MalformedRowException.class,
+                () -> fixedLayout(DealRowParser.HEADER + "\nD1,USD,EUR,2025-05-31T10:15:30,1.0,extra\n", 10));
+        assertThrows(MalformedRowException.class,
+                () -> fixedLayout(DealRowParser.HEADER + "\nD1,USD,EUR,2025-05-31T10:15:30\n", 10));
+        assertThrows(MalformedRowException.class,
+                () -> fixedLayout(DealRowParser.HEADER + "\n,USD,EUR,2025-05-31T10:15:30,1.0\n", 10));
+        assertThrows(MalformedRowException.class,
+                () -> fixedLayout(DealRowParser.HEADER + "\nD1,USD,EUR,2025-05-31T10:15:30,abc\n", 10));
+    }
+
+    @Test
+    void leavesUnparseableTimestampsForValidation() {
+        assertNull(fixedLayout(DealRowParser.HEADER + "\nD1,USD,EUR,2025-02-30T10:15:30,1.0\n", 10).get(0).getTimestamp());
+        assertNull(fixedLayout(DealRowParser.HEADER + "\nD1,USD,EUR,31/05/2025 10:15,1.0\n", 10).get(0).getTimestamp());
+    }
+
+    @Test
+    void columnsKeepWhatTheyCannotEncodeAside() throws IOException {
+        RowChunkReader reader = new RowChunkReader(stream(DealRowParser.HEADER + "\n"
+                + "D1,usd,EUR,2025-05-31T10:15:30,1.5\n"
+                + "D2,us,EUR,2025-05-31T10:15:30,1\n"
+                + "\" \",JPY,EUR,2025-05-31T10:15:30,0.5\n"), 10);
+        reader.readHeader();
+        DealColumns columns = DealRowParser.parseColumns(reader.next());
+
+        assertEquals(List.of("D1", "D2", " "), columns.dealIds());
+        assertEquals("USD", columns.fromCurrency(0));
+        assertEquals(DealColumns.OTHER_CURRENCY, columns.fromCurrencyKey(1));
+        assertEquals("US", columns.fromCurrency(1));
+        assertEquals(LocalDateTime.of(2025, 5, 31, 10, 15, 30), columns.timestamp(0));
+        assertEquals(150, columns.amountUnits(0));
+        assertFalse(columns.isScaledAmount(2));
+        assertEquals(new BigDecimal("0.5"), columns.amount(2));
+        assertTrue(columns.isDealIdBlank(2));
+
+        DealColumns selected = columns.select(new int[]{2, 0});
+        assertEquals(List.of(" ", "D1"), selected.dealIds());
+        assertEquals("JPY", selected.fromCurrency(0));
+        assertEquals(columns.toDeal(0), selected.toDeal(1));
+        assertEquals(columns.toDeals(), DealColumns.of(columns.toDeals()).toDeals());
+    }
+
+    @Test
+    void recognisesOnlyTheExactHeader() throws IOException {
+        assertTrue(DealRowParser.isFixedLayout(header("﻿" + DealRowParser.HEADER + "\r\n")));
+        assertFalse(DealRowParser.isFixedLayout(header("dealid,fromCurrency,toCurrency,timestamp,amount\n")));
+        assertFalse(DealRowParser.isFixedLayout(header("fromCurrency,dealId,toCurrency,timestamp,amount\n")));
+
+        RowChunkReader reader = new RowChunkReader(stream("a,b\n1,2\n"), 10);
+        reader.readHeader();
+        assertEquals("a,b\n1,2\n", new String(reader.replay().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    private static byte[] header(String csv) throws IOException {
+        return new RowChunkReader(stream(csv), 10).readHeader();
+    }
+
+    private static List<Deal> fixedLayout(String csv, int rowsPerChunk) {
+        try {
+            RowChunkReader reader = new RowChunkReader(stream(csv), rowsPerChunk);
+            assertTrue(DealRowParser.isFixedLayout(reader.readHeader()));
+            List<Deal> deals = new ArrayList<>();
+            long expectedFirstRow = 1;
+            RowChunk chunk;
+            while ((chunk = reader.next()) != null) {
+                assertEquals(expectedFirstRow, chunk.firstRow());
+                expectedFirstRow += chunk.rows();
+                deals.addAll(DealRowParser.parse(chunk));
+            }
+            return deals;
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static List<Deal> openCsv(String csv) {
+        return new CsvToBeanBuilder<DealsDto>(new InputStreamReader(stream(csv), StandardCharsets.UTF_8))
+                .withType(DealsDto.class)
+                .withIgnoreLeadingWhiteSpace(true)
+                .build()
+                .stream()
+                .map(Deal::toEntity)
+                .toList();
+    }
+
+    private static InputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
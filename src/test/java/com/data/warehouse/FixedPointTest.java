@@ -0,0 +1,78 @@
+package com.data.warehouse;
+
+import com.data.warehouse.models.Deal;
+import com.data.warehouse.utils.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointTest {
+
+    @Test
+    void usesTheFractionDigitsOfTheCurrency() {
+        assertEquals(2, FixedPoint.scale("USD"));
+        assertEquals(0, FixedPoint.scale("JPY"));
+        assertEquals(3, FixedPoint.scale("BHD"));
+        assertEquals(2, FixedPoint.scale("ZZZ"));
+        assertEquals(2, FixedPoint.scale(null));
+        assertEquals(2, FixedPoint.scale("XAU"));
+        assertEquals(2, FixedPoint.scale("U$D"));
+        assertEquals(2, FixedPoint.scale("USDX"));
+    }
+
+    @Test
+    void parsesPlainDecimalsIntoUnits() {
+        assertEquals(100050, parse("1000.50", 2));
+        assertEquals(100000, parse("1000", 2));
+        assertEquals(150, parse(" 1.5\t", 2));
+        assertEquals(-250075, parse("-2500.75", 2));
+        assertEquals(50, parse("+.5", 2));
+        assertEquals(100, parse("1.", 2));
+        assertEquals(50000, parse("50000", 0));
+    }
+
+    @Test
+    void reportsValuesThatDoNotFit() {
+        assertEquals(FixedPoint.NONE, parse("0.001", 2));
+        assertEquals(FixedPoint.NONE, parse("50000.5", 0));
+        assertEquals(FixedPoint.NONE, parse("1e3", 2));
+        assertEquals(FixedPoint.NONE, parse("", 2));
+        assertEquals(FixedPoint.NONE, parse("-", 2));
+        assertEquals(FixedPoint.NONE, parse("1.2.3", 2));
+
+        assertEquals(Long.MAX_VALUE, parse(Long.toString(Long.MAX_VALUE), 0));
+        assertEquals(FixedPoint.NONE, parse("9223372036854775808", 0));
+        assertEquals(FixedPoint.NONE, parse("92233720368547758.08", 3));
+        assertEquals(FixedPoint.NONE, parse("92233720368547759", 2));
+        assertEquals(Long.MAX_VALUE, parse("92233720368547758.07", 2));
+    }
+
+    @Test
+    void convertsBigDecimalsOnlyWhenExact() {
+        assertEquals(110, FixedPoint.units(new BigDecimal("1.100"), 2));
+        assertEquals(100000, FixedPoint.units(new BigDecimal("1E+3"), 2));
+        assertEquals(FixedPoint.NONE, FixedPoint.units(new BigDecimal("0.001"), 2));
+        assertEquals(FixedPoint.NONE, FixedPoint.units(new BigDecimal("12345678901234567890.5"), 2));
+    }
+
+    @Test
+    void dealsCompareByAmountWhateverTheRepresentation() {
+        Deal scaled = new Deal(null, "D1", "USD", "EUR", null, null);
+        scaled.setAmountAtCurrencyScale(new BigDecimal("1000.5"));
+        Deal plain = new Deal(null, "D1", "USD", "EUR", null, new BigDecimal("1000.50"));
+
+        assertTrue(scaled.isScaledAmount());
+        assertEquals(100050, scaled.getAmountUnits());
+        assertFalse(plain.isScaledAmount());
+        assertEquals(plain, scaled);
+        assertEquals(plain.hashCode(), scaled.hashCode());
+    }
+
+    private static long parse(String text, int scale) {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        return FixedPoint.parse(bytes, 0, bytes.length, scale);
+    }
+}
@@ -0,0 +1,84 @@
+package com.data.warehouse;
+
+import com.data.warehouse.config.ImportDatabase;
+import com.data.warehouse.config.ImportProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ImportDatabaseTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+    @Test
+    void sharesTheApplicationPoolByDefault() throws Exception {
+        ImportDatabase database = new ImportDatabase(jdbcTemplate, transactionTemplate, dataSourceProperties(),
+                new ImportProperties(), new MockEnvironment());
+
+        assertSame(jdbcTemplate, database.getJdbcTemplate());
+        assertSame(transactionTemplate, database.getTransactionTemplate());
+        database.destroy();
+    }
+
+    @Test
+    void buildsItsOwnPoolFromTheImportSettings() throws Exception {
+        ImportProperties properties = new ImportProperties();
+        properties.getDatasource().setEnabled(true);
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("warehouse.import.datasource.hikari.maximum-pool-size", "14")
+                .withProperty("warehouse.import.datasource.hikari.data-source-properties.reWriteBatchedInserts", "true");
+
+        ImportDatabase database = new ImportDatabase(jdbcTemplate, transactionTemplate, dataSourceProperties(),
+                properties, environment);
+
+        assertNotSame(jdbcTemplate, database.getJdbcTemplate());
+        HikariDataSource pool = (HikariDataSource) database.getJdbcTemplate().getDataSource();
+        assertEquals("jdbc:postgresql://localhost:5432/dealsdb", pool.getJdbcUrl());
+        assertEquals("deal-import", pool.getPoolName());
+        assertEquals(14, pool.getMaximumPoolSize());
+        assertEquals("true", pool.getDataSourceProperties().getProperty("reWriteBatchedInserts"));
+        database.destroy();
+        assertTrue(pool.isClosed());
+    }
+
+    @Test
+    void bulkImportProfileConfiguresTheImportPool() throws Exception {
+        StandardEnvironment environment = new StandardEnvironment();
+        new YamlPropertySourceLoader().load("bulk-import", new ClassPathResource("application-bulk-import.yml"))
+                .forEach(environment.getPropertySources()::addFirst);
+        ImportProperties properties = Binder.get(environment).bind("warehouse.import", ImportProperties.class).get();
+
+        ImportDatabase database = new ImportDatabase(jdbcTemplate, transactionTemplate, dataSourceProperties(),
+                properties, environment);
+
+        assertEquals(5000, properties.getChunkSize());
+        HikariDataSource pool = (HikariDataSource) database.getJdbcTemplate().getDataSource();
+        assertEquals(14, pool.getMaximumPoolSize());
+        assertEquals("true", pool.getDataSourceProperties().getProperty("reWriteBatchedInserts"));
+        assertEquals("1", pool.getDataSourceProperties().getProperty("prepareThreshold"));
+        database.destroy();
+    }
+
+    private static DataSourceProperties dataSourceProperties() throws Exception {
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl("jdbc:postgresql://localhost:5432/dealsdb");
+        properties.setUsername("user");
+        properties.setPassword("password");
+        properties.afterPropertiesSet();
+        return properties;
+    }
+}
@@ -0,0 +1,96 @@
+package com.data.warehouse;
+
+import com.data.warehouse.config.ImportProperties;
+import com.data.warehouse.services.ImportPipeline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportPipelineTest {
+
+    private ImportPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        ImportProperties properties = new ImportProperties();
+        properties.setParallelism(4);
+        properties.setQueueDepth(3);
+        pipeline = new ImportPipeline(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(pipeline, "shutdown");
+    }
+
+    @Test
+    void writerSeesChunksInReadOrder() {
+        AtomicInteger next = new AtomicInteger();
+        List<Integer> written = new ArrayList<>();
+
+        pipeline.run(
+                () -> next.get() < 100 ? next.getAndIncrement() : null,
+                chunk -> {
+                    sleepBriefly();
+                    return chunk * 10;
+                },
+                written::add);
+
+        assertEquals(IntStream.range(0, 100).map(i -> i * 10).boxed().toList(), written);
+    }
+
+    @Test
+    void readerFailureSurfacesAfterEarlierChunksAreWritten() {
+        AtomicInteger next = new AtomicInteger();
+        List<Integer> written = new ArrayList<>();
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> pipeline.run(
+                () -> {
+                    int chunk = next.getAndIncrement();
+                    if (chunk == 5) {
+                        throw new IllegalArgumentException("bad row");
+                    }
+                    return chunk;
+                },
+                chunk -> chunk,
+                written::add));
+
+        assertEquals("bad row", exception.getMessage());
+        assertEquals(List.of(0, 1, 2, 3, 4), written);
+    }
+
+    @Test
+    void writerFailureStopsTheReader() {
+        AtomicInteger read = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> pipeline.run(
+                read::getAndIncrement,
+                chunk -> chunk,
+                chunk -> {
+                    if (chunk == 2) {
+                        throw new IllegalStateException("db down");
+                    }
+                }));
+
+        int readAfterFailure = read.get();
+        sleepBriefly();
+        assertEquals(readAfterFailure, read.get());
+    }
+
+    private static void sleepBriefly() {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
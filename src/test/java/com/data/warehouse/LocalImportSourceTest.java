@@ -0,0 +1,59 @@
+package com.data.warehouse;
+
+import com.data.warehouse.config.ImportProperties;
+import com.data.warehouse.config.MessageResolver;
+import com.data.warehouse.services.LocalImportSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalImportSourceTest {
+
+    @TempDir
+    Path root;
+
+    private final ImportProperties importProperties = new ImportProperties();
+    private final LocalImportSource source =
+            new LocalImportSource(importProperties, Mockito.mock(MessageResolver.class));
+    private Path base;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        base = Files.createDirectories(root.resolve("deals"));
+        importProperties.getLocal().setBaseDir(base.toString());
+    }
+
+    @Test
+    void resolvesFilesInsideTheBaseDir() throws IOException {
+        Path file = Files.writeString(Files.createDirectories(base.resolve("eod")).resolve("deals.csv"), "x");
+
+        assertEquals(file.toRealPath(), source.resolve("eod/deals.csv"));
+        assertEquals(file.toRealPath(), source.resolve("eod/../eod/deals.csv"));
+    }
+
+    @Test
+    void rejectsPathsEscapingTheBaseDir() throws IOException {
+        Path outside = Files.writeString(root.resolve("secret.csv"), "x");
+        Files.createSymbolicLink(base.resolve("link.csv"), outside);
+
+        assertThrows(IllegalArgumentException.class, () -> source.resolve("../secret.csv"));
+        assertThrows(IllegalArgumentException.class, () -> source.resolve(outside.toString()));
+        assertThrows(IllegalArgumentException.class, () -> source.resolve("link.csv"));
+        assertThrows(IllegalArgumentException.class, () -> source.resolve("missing.csv"));
+        assertThrows(IllegalArgumentException.class, () -> source.resolve("."));
+    }
+
+    @Test
+    void isDisabledWithoutBaseDir() {
+        importProperties.getLocal().setBaseDir(null);
+
+        assertThrows(IllegalArgumentException.class, () -> source.resolve("deals.csv"));
+    }
+}
@@ -0,0 +1,82 @@
+package com.data.warehouse;
+
+import com.data.warehouse.config.ImportProperties;
+import com.data.warehouse.models.Deal;
+import com.data.warehouse.parser.DealColumns;
+import com.data.warehouse.repository.DealBatchRepository;
+import com.data.warehouse.services.PartitionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "warehouse.import.id-filter.enabled=false")
+class PartitionManagerTest {
+
+    private static final LocalDateTime FEBRUARY = LocalDateTime.of(2031, 2, 14, 9, 30);
+    private static final LocalDateTime JULY = LocalDateTime.of(2031, 7, 1, 0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ImportProperties importProperties;
+
+    @Autowired
+    private DealBatchRepository dealBatchRepository;
+
+    private PartitionManager partitionManager;
+
+    @BeforeEach
+    void freshManager() {
+        partitionManager = new PartitionManager(jdbcTemplate, transactionManager, importProperties);
+    }
+
+    @AfterEach
+    void dropTestPartitions() {
+        jdbcTemplate.update("DELETE FROM deals WHERE deal_id LIKE 'PART-%'");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS deals_p2031_02, deals_p2031_07");
+    }
+
+    @Test
+    void dealIdsStayUniqueAcrossPartitions() {
+        Deal february = deal("PART-1", FEBRUARY);
+        partitionManager.ensurePartitions(DealColumns.of(List.of(february)));
+
+        assertEquals(Set.of("PART-1"), dealBatchRepository.insertIgnoringDuplicates(DealColumns.of(List.of(february))));
+        assertEquals(Set.of(), dealBatchRepository.insertIgnoringDuplicates(DealColumns.of(List.of(deal("PART-1", JULY)))));
+        assertEquals("deals_p2031_02", partitionOf("PART-1"));
+    }
+
+    @Test
+    void newPartitionTakesOverRowsFromDefault() {
+        dealBatchRepository.insertIgnoringDuplicates(DealColumns.of(List.of(deal("PART-2", JULY))));
+        assertEquals("deals_default", partitionOf("PART-2"));
+
+        partitionManager.ensurePartitions(DealColumns.of(List.of(deal("PART-3", JULY.plusDays(3)))));
+
+        assertEquals("deals_p2031_07", partitionOf("PART-2"));
+        assertEquals(Set.of(), dealBatchRepository.insertIgnoringDuplicates(DealColumns.of(List.of(deal("PART-2", FEBRUARY)))));
+    }
+
+    private String partitionOf(String dealId) {
+        return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM deals WHERE deal_id = ?", String.class, dealId);
+    }
+
+    private static Deal deal(String dealId, LocalDateTime timestamp) {
+        return new Deal(null, dealId, "USD", "EUR", timestamp, new BigDecimal("10.00"));
+    }
+}
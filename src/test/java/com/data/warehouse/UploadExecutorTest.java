@@ -0,0 +1,112 @@
+package com.data.warehouse;
+
+import com.data.warehouse.config.ImportProperties;
+import com.data.warehouse.config.MessageResolver;
+import com.data.warehouse.services.UploadExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticMessageSource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UploadExecutorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void blockingModeWaitsForAFreeSlot() throws Exception {
+        UploadExecutor executor = executor(ImportProperties.Uploads.Mode.BLOCKING);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<CompletableFuture<String>> first = CompletableFuture.supplyAsync(() -> executor.submit(() -> {
+            running.countDown();
+            release.await();
+            return "first";
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<CompletableFuture<String>> second = CompletableFuture.supplyAsync(() -> executor.submit(() -> "second"));
+        awaitWaiting(1);
+
+        assertThrows(RejectedExecutionException.class, () -> executor.submit(() -> "third"));
+        assertFalse(second.isDone());
+
+        release.countDown();
+        assertEquals("first", first.get(5, TimeUnit.SECONDS).get());
+        assertEquals("second", second.get(5, TimeUnit.SECONDS).get());
+    }
+
+    @Test
+    void blockingModeGivesUpAfterTheQueueTimeout() throws Exception {
+        ImportProperties properties = properties(ImportProperties.Uploads.Mode.BLOCKING);
+        properties.getUploads().setQueueTimeout(Duration.ofMillis(50));
+        UploadExecutor executor = executor(properties);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<CompletableFuture<String>> first = CompletableFuture.supplyAsync(() -> executor.submit(() -> {
+            running.countDown();
+            release.await();
+            return "first";
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        assertThrows(RejectedExecutionException.class, () -> executor.submit(() -> "second"));
+        release.countDown();
+        assertEquals("first", first.get(5, TimeUnit.SECONDS).get());
+        assertEquals("third", executor.submit(() -> "third").get());
+    }
+
+    @Test
+    void asyncModeReturnsBeforeTheImportCompletes() throws Exception {
+        UploadExecutor executor = executor(ImportProperties.Uploads.Mode.ASYNC);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> result = executor.submit(() -> {
+            release.await();
+            return "done";
+        });
+        assertFalse(result.isDone());
+
+        release.countDown();
+        assertEquals("done", result.get(5, TimeUnit.SECONDS));
+
+        CompletableFuture<String> failed = executor.submit(() -> {
+            throw new IOException("broken upload");
+        });
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, error.getCause());
+    }
+
+    private void awaitWaiting(int uploads) throws InterruptedException {
+        for (int i = 0; i < 500 && registry.get("deals.import.uploads.waiting").gauge().value() < uploads; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    private UploadExecutor executor(ImportProperties.Uploads.Mode mode) {
+        return executor(properties(mode));
+    }
+
+    private static ImportProperties properties(ImportProperties.Uploads.Mode mode) {
+        ImportProperties properties = new ImportProperties();
+        properties.getUploads().setMode(mode);
+        properties.getUploads().setConcurrency(1);
+        properties.getUploads().setQueueCapacity(1);
+        return properties;
+    }
+
+    private UploadExecutor executor(ImportProperties properties) {
+        StaticMessageSource messages = new StaticMessageSource();
+        messages.setUseCodeAsDefaultMessage(true);
+        return new UploadExecutor(properties, new MessageResolver(messages), registry);
+    }
+}
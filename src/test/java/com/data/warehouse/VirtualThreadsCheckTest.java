@@ -0,0 +1,25 @@
+package com.data.warehouse;
+
+import com.data.warehouse.config.VirtualThreadsCheck;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class VirtualThreadsCheckTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadsCheck.class);
+
+    @Test
+    void failsStartupOnlyWithoutVirtualThreads() {
+        runner.withPropertyValues("spring.threads.virtual.enabled=true").run(context ->
+                assertEquals(Runtime.version().feature() < 21, context.getStartupFailure() != null));
+    }
+
+    @Test
+    void staysOutOfTheWayWhenNotAskedFor() {
+        runner.run(context -> assertNull(context.getStartupFailure()));
+    }
+}
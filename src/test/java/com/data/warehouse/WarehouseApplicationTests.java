@@ -1,15 +1,31 @@
 package com.data.warehouse;
 import static org.mockito.Mockito.*;
 
+import com.data.warehouse.config.ImportProperties;
 import com.data.warehouse.config.MessageResolver;
+import com.data.warehouse.dto.BatchResultsDto;
+import com.data.warehouse.dto.FileResultDto;
+import com.data.warehouse.dto.ImportLoader;
 import com.data.warehouse.dto.ResultsDto;
 import com.data.warehouse.models.Deal;
+import com.data.warehouse.models.ImportCheckpoint;
+import com.data.warehouse.parser.DealColumns;
+import com.data.warehouse.repository.DealBatchRepository;
+import com.data.warehouse.repository.DealCopyRepository;
+import com.data.warehouse.repository.DealRollupRepository;
 import com.data.warehouse.repository.DealRepository;
+import com.data.warehouse.repository.ImportCheckpointRepository;
+import com.data.warehouse.services.BatchImportService;
+import com.data.warehouse.services.ImportJob;
+import com.data.warehouse.services.ImportJobService;
 import com.data.warehouse.services.DealService;
+import com.data.warehouse.services.ImportContext;
 import com.data.warehouse.validator.DealValidator;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -19,17 +35,33 @@ import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.github.luben.zstd.ZstdOutputStream;
+
 import java.io.*;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import static org.junit.jupiter.api.Assertions.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 @Slf4j
-@SpringBootTest
+@SpringBootTest(properties = "warehouse.import.id-filter.enabled=false")
 class WarehouseApplicationTests {
 
 
@@ -43,9 +75,40 @@ class WarehouseApplicationTests {
 	private DealService dealService;
 
 
+	@Autowired
+	private ImportProperties importProperties;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private ImportJobService importJobService;
+
+	@Autowired
+	private ImportCheckpointRepository checkpointRepository;
+
+	@Autowired
+	private BatchImportService batchImportService;
+
 	@MockitoBean
 	private DealRepository dealRepository;
 
+	@MockitoBean
+	private DealBatchRepository dealBatchRepository;
+
+	@MockitoBean
+	private DealRollupRepository dealRollupRepository;
+
+	@MockitoBean
+	private DealCopyRepository dealCopyRepository;
+
+	@BeforeEach
+	void stubBatchInsert() {
+		when(dealBatchRepository.insertIgnoringDuplicates(any(DealColumns.class))).thenAnswer(invocation -> {
+			DealColumns deals = invocation.getArgument(0);
+			return Set.copyOf(deals.dealIds());
+		});
+	}
 
 	@Test
 	void main_shouldRunWithoutErrors() {
@@ -133,7 +196,7 @@ class WarehouseApplicationTests {
 				() -> dealService.importCsv(emptyFile));
 		assertTrue(exception.getMessage().contains("File is empty"));
 
-		verify(dealRepository, never()).save(any());
+		verify(dealBatchRepository, never()).insertIgnoringDuplicates(any());
 
 	}
 
@@ -157,7 +220,7 @@ class WarehouseApplicationTests {
 
 		assertTrue(exception.getMessage().contains("Invalid CSV format"));
 
-		verify(dealRepository, never()).save(any());
+		verify(dealBatchRepository, never()).insertIgnoringDuplicates(any());
 
 	}
 
@@ -285,11 +348,7 @@ class WarehouseApplicationTests {
 				csvContent.getBytes()
 		);
 
-		when(dealRepository.existsByDealId("D001")).thenReturn(true);
-		when(dealRepository.existsByDealId("D002")).thenReturn(false);
-		when(dealRepository.existsByDealId("D003")).thenReturn(false);
-		when(dealRepository.existsByDealId("D021")).thenReturn(false);
-		when(dealRepository.existsByDealId("D022")).thenReturn(false);
+		when(dealRepository.findExistingDealIds(anyCollection())).thenReturn(Set.of("D001"));
 
 		ResultsDto result = dealService.importCsv(file);
 
@@ -300,6 +359,516 @@ class WarehouseApplicationTests {
 		assertTrue(result.getErrors().stream().anyMatch(e -> e.contains("Invalid deal [D021]")));
 		assertTrue(result.getErrors().stream().anyMatch(e -> e.contains("Invalid deal [D022]")));
 
-		verify(dealRepository, times(2)).save(any());
+		verify(dealRepository, times(1)).findExistingDealIds(anyCollection());
+		verify(dealBatchRepository).insertIgnoringDuplicates(argThat(deals -> deals.size() == 2));
+	}
+
+	@Test
+	void testChunkedImportKeepsCounts() throws IOException {
+		String csvContent = """
+            dealId,fromCurrency,toCurrency,timestamp,amount
+            D001,USD,EUR,2025-05-31T10:15:30,1000.50
+            D002,GBP,USD,2025-05-30T14:00:00,2500.75
+            D003,USD,ZZZ,2025-05-15T13:00:00,1000.00
+            D004,USD,EUR,2025-05-14T13:00:00,-100.00
+            D001,EUR,JPY,2025-05-29T09:45:00,50000
+            D005,EUR,JPY,2025-05-29T09:45:00,50000
+            D002,GBP,USD,2025-05-30T14:00:00,2500.75
+            """;
+
+		MockMultipartFile file = new MockMultipartFile(
+				"file",
+				"chunked.csv",
+				"text/csv",
+				csvContent.getBytes()
+		);
+
+		int chunkSize = importProperties.getChunkSize();
+		importProperties.setChunkSize(2);
+		try {
+			ResultsDto result = dealService.importCsv(file);
+
+			assertEquals(3, result.getSaved());
+			assertEquals(2, result.getDuplicates());
+			assertEquals(2, result.getInvalid());
+		} finally {
+			importProperties.setChunkSize(chunkSize);
+		}
+	}
+
+	@Test
+	void testReorderedHeaderFallsBackToGenericBinding() throws IOException {
+		String csvContent = """
+            amount,timestamp,toCurrency,fromCurrency,dealId
+            1000.50,2025-05-31T10:15:30,EUR,USD,D001
+            2500.75,2025-05-30T14:00:00,ZZZ,GBP,D002
+            """;
+
+		MockMultipartFile file = new MockMultipartFile(
+				"file",
+				"reordered.csv",
+				"text/csv",
+				csvContent.getBytes()
+		);
+
+		ResultsDto result = dealService.importCsv(file);
+
+		assertEquals(1, result.getSaved());
+		assertEquals(1, result.getInvalid());
+	}
+
+	@Test
+	void testUnparseableTimestampsAreRejectedRows() throws IOException {
+		List<String> layouts = List.of("""
+            dealId,fromCurrency,toCurrency,timestamp,amount
+            T001,USD,EUR,2025-05-31T10:15:30,1000.50
+            T002,USD,EUR,2025-02-30T10:15:30,1000.50
+            T003,USD,EUR,31/05/2025 10:15,1000.50
+            """, """
+            amount,timestamp,toCurrency,fromCurrency,dealId
+            1000.50,2025-05-31T10:15:30,EUR,USD,T001
+            1000.50,2025-02-30T10:15:30,EUR,USD,T002
+            1000.50,31/05/2025 10:15,EUR,USD,T003
+            """);
+
+		for (String csvContent : layouts) {
+			ResultsDto result = dealService.importCsv(
+					new MockMultipartFile("file", "timestamps.csv", "text/csv", csvContent.getBytes()));
+
+			assertEquals(1, result.getSaved());
+			assertEquals(2, result.getInvalid());
+			assertEquals(2L, result.getErrorCounts().get("TIMESTAMP_INVALID"));
+		}
+	}
+
+	@Test
+	void testImportLocalFile(@TempDir Path dir) throws IOException {
+		Path file = Files.writeString(dir.resolve("eod.csv"), """
+            dealId,fromCurrency,toCurrency,timestamp,amount
+            D001,USD,EUR,2025-05-31T10:15:30,1000.50
+            D002,GBP,USD,2025-05-30T14:00:00,2500.75
+            D003,USD,ZZZ,2025-05-15T13:00:00,1000.00
+            """);
+
+		ResultsDto result = dealService.importFile(file);
+
+		assertEquals(2, result.getSaved());
+		assertEquals(1, result.getInvalid());
+	}
+
+	@Test
+	void testImportCompressedUploads() throws IOException {
+		String csvContent = """
+            dealId,fromCurrency,toCurrency,timestamp,amount
+            D001,USD,EUR,2025-05-31T10:15:30,1000.50
+            D002,GBP,USD,2025-05-30T14:00:00,2500.75
+            D003,USD,ZZZ,2025-05-15T13:00:00,1000.00
+            """;
+
+		ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+		try (OutputStream out = new GZIPOutputStream(gzip)) {
+			out.write(csvContent.getBytes(StandardCharsets.UTF_8));
+		}
+		ByteArrayOutputStream zstd = new ByteArrayOutputStream();
+		try (OutputStream out = new ZstdOutputStream(zstd)) {
+			out.write(csvContent.getBytes(StandardCharsets.UTF_8));
+		}
+
+		List<MockMultipartFile> files = List.of(
+				new MockMultipartFile("file", "deals.csv.gz", "application/gzip", gzip.toByteArray()),
+				new MockMultipartFile("file", "deals.csv.gz", "application/octet-stream", gzip.toByteArray()),
+				new MockMultipartFile("file", "deals.csv.zst", "application/zstd", zstd.toByteArray()),
+				new MockMultipartFile("file", "deals.csv", "text/csv", zstd.toByteArray()));
+		for (MockMultipartFile file : files) {
+			ResultsDto result = dealService.importCsv(file);
+
+			assertEquals(2, result.getSaved(), file.getOriginalFilename());
+			assertEquals(1, result.getInvalid(), file.getOriginalFilename());
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> dealService.importCsv(
+				new MockMultipartFile("file", "deals.txt.gz", "application/gzip", gzip.toByteArray())));
+		assertThrows(IllegalArgumentException.class, () -> dealService.importCsv(
+				new MockMultipartFile("file", "deals.csv", "application/octet-stream", gzip.toByteArray())));
+
+		byte[] truncated = Arrays.copyOf(gzip.toByteArray(), gzip.size() / 2);
+		IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> dealService.importCsv(
+				new MockMultipartFile("file", "deals.csv.gz", "application/gzip", truncated)));
+		assertTrue(exception.getMessage().contains("Invalid CSV format"));
+	}
+
+	@Test
+	void testBatchImportSharesDealIdsAcrossFiles() throws IOException {
+		String header = "dealId,fromCurrency,toCurrency,timestamp,amount\n";
+		ByteArrayOutputStream zip = new ByteArrayOutputStream();
+		try (ZipOutputStream out = new ZipOutputStream(zip)) {
+			out.putNextEntry(new ZipEntry("eod/a.csv"));
+			out.write((header + "B001,USD,EUR,2025-05-31T10:15:30,10\nB002,USD,EUR,2025-05-31T10:15:30,20\n").getBytes());
+			out.putNextEntry(new ZipEntry("eod/b.csv"));
+			out.write((header + "B002,USD,EUR,2025-05-31T10:15:30,20\nB003,USD,ZZZ,2025-05-31T10:15:30,30\n").getBytes());
+			out.putNextEntry(new ZipEntry("eod/readme.txt"));
+			out.write("not deals".getBytes());
+		}
+
+		BatchResultsDto result = batchImportService.importBatch(List.of(
+				new MockMultipartFile("files", "eod.zip", "application/zip", zip.toByteArray()),
+				new MockMultipartFile("files", "c.csv", "text/csv",
+						(header + "B001,USD,EUR,2025-05-31T10:15:30,10\nB004,USD,EUR,2025-05-31T10:15:30,40\n").getBytes()),
+				new MockMultipartFile("files", "notes.txt", "text/plain", "not deals".getBytes())));
+
+		assertEquals(List.of("eod.zip!/eod/a.csv", "eod.zip!/eod/b.csv", "eod.zip!/eod/readme.txt", "c.csv", "notes.txt"),
+				result.getFiles().stream().map(FileResultDto::getFile).toList());
+		assertNotNull(result.getFiles().get(2).getError());
+		assertNotNull(result.getFiles().get(4).getError());
+
+		ResultsDto total = result.getTotal();
+		assertEquals(3, total.getSaved());
+		assertEquals(2, total.getDuplicates());
+		assertEquals(1, total.getInvalid());
+		assertEquals(2L, total.getErrorCounts().get("DUPLICATE_IN_BATCH"));
+		assertEquals(3, total.getErrors().size());
+		assertTrue(total.getErrors().stream().anyMatch(error -> error.startsWith("eod.zip!/eod/b.csv: ")));
+
+		assertThrows(IllegalArgumentException.class, () -> batchImportService.importBatch(List.of()));
+	}
+
+	@Test
+	void testBatchImportSavesTheValidCopyWhenAnInvalidOneComesFirst() throws IOException {
+		String header = "dealId,fromCurrency,toCurrency,timestamp,amount\n";
+		List<String> inserted = new CopyOnWriteArrayList<>();
+		when(dealBatchRepository.insertIgnoringDuplicates(any(DealColumns.class))).thenAnswer(invocation -> {
+			DealColumns deals = invocation.getArgument(0);
+			inserted.addAll(deals.dealIds());
+			return Set.copyOf(deals.dealIds());
+		});
+
+		BatchResultsDto result = batchImportService.importBatch(List.of(
+				new MockMultipartFile("files", "a.csv", "text/csv",
+						(header + "V001,USD,ZZZ,2025-05-31T10:15:30,10\n").getBytes()),
+				new MockMultipartFile("files", "b.csv", "text/csv",
+						(header + "V001,USD,EUR,2025-05-31T10:15:30,10\n").getBytes())));
+
+		ResultsDto total = result.getTotal();
+		assertEquals(1, total.getSaved());
+		assertEquals(0, total.getDuplicates());
+		assertEquals(1, total.getInvalid());
+		assertEquals(List.of("V001"), inserted);
+	}
+
+	@Test
+	void testRolledBackChunkReleasesItsBatchClaims() {
+		ConcurrentMap<String, Object> batchDealIds = new ConcurrentHashMap<>();
+		when(dealBatchRepository.insertIgnoringDuplicates(any(DealColumns.class)))
+				.thenThrow(new IllegalStateException("insert failed"));
+		String csv = "dealId,fromCurrency,toCurrency,timestamp,amount\nR001,USD,EUR,2025-05-31T10:15:30,10\n";
+
+		assertThrows(IllegalStateException.class, () -> dealService.importStream(
+				new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+				ImportContext.builder().batchDealIds(batchDealIds).build()));
+
+		assertTrue(batchDealIds.isEmpty());
+	}
+
+	@Test
+	void testMalformedRowAfterTheFirstChunkReportsTheCommittedRows() {
+		String csv = """
+            dealId,fromCurrency,toCurrency,timestamp,amount
+            M001,USD,EUR,2025-05-31T10:15:30,10
+            M002,USD,ZZZ,2025-05-31T10:15:30,20
+            M003,USD,EUR,2025-05-31T10:15:30,30
+            M004,USD,EUR,2025-05-31T10:15:30,40,extra
+            """;
+		List<String> inserted = new CopyOnWriteArrayList<>();
+		when(dealBatchRepository.insertIgnoringDuplicates(any(DealColumns.class))).thenAnswer(invocation -> {
+			DealColumns deals = invocation.getArgument(0);
+			inserted.addAll(deals.dealIds());
+			return Set.copyOf(deals.dealIds());
+		});
+
+		int chunkSize = importProperties.getChunkSize();
+		importProperties.setChunkSize(2);
+		try {
+			ResultsDto result = dealService.importStream(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+			assertEquals(List.of("M001"), inserted);
+			assertEquals(1, result.getSaved());
+			assertEquals(1, result.getInvalid());
+			assertNotNull(result.getError());
+			assertTrue(result.getError().contains("row 4"), result.getError());
+
+			assertThrows(IllegalArgumentException.class, () -> dealService.importStream(new ByteArrayInputStream(
+					"dealId,fromCurrency,toCurrency,timestamp,amount\nM005,USD,EUR,2025-05-31T10:15:30,1,extra\n"
+							.getBytes(StandardCharsets.UTF_8))));
+		} finally {
+			importProperties.setChunkSize(chunkSize);
+		}
+	}
+
+	@Test
+	void testFailedJobResumesFromCheckpoint(@TempDir Path dir) throws Exception {
+		Path file = Files.writeString(dir.resolve("resume.csv"), """
+            dealId,fromCurrency,toCurrency,timestamp,amount
+            D001,USD,EUR,2025-05-31T10:15:30,1000.50
+            D002,GBP,USD,2025-05-30T14:00:00,2500.75
+            D003,USD,ZZZ,2025-05-15T13:00:00,1000.00
+            D004,USD,EUR,2025-05-14T13:00:00,100.00
+            D001,EUR,JPY,2025-05-29T09:45:00,50000
+            D005,EUR,JPY,2025-05-29T09:45:00,50000
+            """);
+
+		List<String> inserted = new CopyOnWriteArrayList<>();
+		when(dealBatchRepository.insertIgnoringDuplicates(any(DealColumns.class))).thenAnswer(invocation -> {
+			DealColumns deals = invocation.getArgument(0);
+			if (deals.dealIds().contains("D004")) {
+				throw new IllegalStateException("connection lost");
+			}
+			inserted.addAll(deals.dealIds());
+			return Set.copyOf(deals.dealIds());
+		});
+
+		int chunkSize = importProperties.getChunkSize();
+		importProperties.setChunkSize(2);
+		try {
+			ImportJob failed = awaitFinished(importJobService.submit(file, job -> { }));
+			assertEquals(ImportJob.Status.FAILED, failed.getStatus());
+			assertEquals(2, checkpointRepository.findById(failed.getId()).orElseThrow().getRowsCommitted());
+
+			reset(dealBatchRepository);
+			stubBatchInsert();
+			ImportJob resumed = awaitFinished(importJobService.resume(failed.getId()));
+
+			assertEquals(ImportJob.Status.COMPLETED, resumed.getStatus(), resumed.getError());
+			assertEquals(List.of("D001", "D002"), inserted);
+			verify(dealBatchRepository, never()).insertIgnoringDuplicates(argThat(deals ->
+					deals.dealIds().contains("D001")));
+			assertEquals(4, resumed.getResult().getSaved());
+			assertEquals(1, resumed.getResult().getDuplicates());
+			assertEquals(1, resumed.getResult().getInvalid());
+			assertTrue(checkpointRepository.findById(failed.getId()).isEmpty());
+			assertTrue(Files.exists(file));
+			assertThrows(IllegalArgumentException.class, () -> importJobService.resume(failed.getId()));
+		} finally {
+			importProperties.setChunkSize(chunkSize);
+		}
+	}
+
+	@Test
+	void testStartupSweepFailsInterruptedJobsAndDropsStaleSpoolFiles(@TempDir Path dir) throws Exception {
+		Path interrupted = Files.writeString(dir.resolve("deal-import-interrupted.csv"), "dealId\n");
+		Path stale = Files.writeString(dir.resolve("deal-import-stale.csv"), "dealId\n");
+		Path orphan = Files.writeString(dir.resolve("deal-import-orphan.csv"), "dealId\n");
+		Path unrelated = Files.writeString(dir.resolve("other.csv"), "dealId\n");
+		checkpointRepository.save(sweepCheckpoint("sweep-interrupted", interrupted, Instant.now()));
+		checkpointRepository.save(sweepCheckpoint("sweep-stale", stale,
+				Instant.now().minus(importProperties.getJobs().getRetention()).minusSeconds(60)));
+
+		String spoolDir = importProperties.getJobs().getSpoolDir();
+		importProperties.getJobs().setSpoolDir(dir.toString());
+		try {
+			importJobService.sweepInterrupted();
+
+			assertEquals(ImportCheckpoint.Status.FAILED,
+					checkpointRepository.findById("sweep-interrupted").orElseThrow().getStatus());
+			assertTrue(Files.exists(interrupted));
+			assertTrue(checkpointRepository.findById("sweep-stale").isEmpty());
+			assertFalse(Files.exists(stale));
+			assertFalse(Files.exists(orphan));
+			assertTrue(Files.exists(unrelated));
+		} finally {
+			importProperties.getJobs().setSpoolDir(spoolDir);
+			checkpointRepository.deleteById("sweep-interrupted");
+		}
+	}
+
+	private static ImportCheckpoint sweepCheckpoint(String jobId, Path source, Instant updatedAt) {
+		return ImportCheckpoint.builder()
+				.jobId(jobId)
+				.fileName(source.getFileName().toString())
+				.sourcePath(source.toAbsolutePath().toString())
+				.ownsSource(true)
+				.status(ImportCheckpoint.Status.RUNNING)
+				.updatedAt(updatedAt)
+				.build();
+	}
+
+	@Test
+	void testFailedWatchedFileResumesFromTheFailedDirectory(@TempDir Path dir) throws Exception {
+		Path incoming = Files.createDirectories(dir.resolve("incoming"));
+		Path failedDir = Files.createDirectories(dir.resolve("failed"));
+		Path file = Files.writeString(incoming.resolve("watched.csv"), """
+            dealId,fromCurrency,toCurrency,timestamp,amount
+            W001,USD,EUR,2025-05-31T10:15:30,1000.50
+            W002,GBP,USD,2025-05-30T14:00:00,2500.75
+            W003,USD,EUR,2025-05-14T13:00:00,100.00
+            """);
+		when(dealBatchRepository.insertIgnoringDuplicates(any(DealColumns.class))).thenAnswer(invocation -> {
+			DealColumns deals = invocation.getArgument(0);
+			if (deals.dealIds().contains("W003")) {
+				throw new IllegalStateException("connection lost");
+			}
+			return Set.copyOf(deals.dealIds());
+		});
+
+		int chunkSize = importProperties.getChunkSize();
+		importProperties.setChunkSize(2);
+		try {
+			// what DealFileWatcher does once a job has finished
+			CompletableFuture<Path> moved = new CompletableFuture<>();
+			ImportJob failed = importJobService.submit(file, job -> {
+				Path target = failedDir.resolve(job.getId() + "-" + file.getFileName());
+				try {
+					importJobService.moveSource(job.getId(), file, target);
+					moved.complete(target);
+				} catch (IOException e) {
+					moved.completeExceptionally(e);
+				}
+			});
+			Path target = moved.get(5, TimeUnit.SECONDS);
+			assertEquals(ImportJob.Status.FAILED, failed.getStatus());
+			assertEquals(target.toAbsolutePath().toString(),
+					checkpointRepository.findById(failed.getId()).orElseThrow().getSourcePath());
+
+			reset(dealBatchRepository);
+			stubBatchInsert();
+			ImportJob resumed = awaitFinished(importJobService.resume(failed.getId()));
+
+			assertEquals(ImportJob.Status.COMPLETED, resumed.getStatus(), resumed.getError());
+			assertEquals(3, resumed.getResult().getSaved());
+			verify(dealBatchRepository).insertIgnoringDuplicates(argThat(deals -> deals.dealIds().equals(List.of("W003"))));
+		} finally {
+			importProperties.setChunkSize(chunkSize);
+		}
+	}
+
+	private static ImportJob awaitFinished(ImportJob job) throws InterruptedException {
+		for (int i = 0; i < 500 && !job.isFinished(); i++) {
+			Thread.sleep(10);
+		}
+		assertTrue(job.isFinished());
+		return job;
+	}
+
+	@Test
+	void testConcurrentlyInsertedDealsCountAsDuplicates() throws IOException {
+		String csvContent = """
+            dealId,fromCurrency,toCurrency,timestamp,amount
+            D001,USD,EUR,2025-05-31T10:15:30,1000.50
+            D002,GBP,USD,2025-05-30T14:00:00,2500.75
+            D003,EUR,JPY,2025-05-29T09:45:00,50000
+            """;
+
+		MockMultipartFile file = new MockMultipartFile(
+				"file",
+				"race.csv",
+				"text/csv",
+				csvContent.getBytes()
+		);
+
+		// D002 is committed by another import between the lookup and the insert.
+		when(dealBatchRepository.insertIgnoringDuplicates(any(DealColumns.class))).thenReturn(Set.of("D001", "D003"));
+
+		ResultsDto result = dealService.importCsv(file);
+
+		assertEquals(2, result.getSaved());
+		assertEquals(1, result.getDuplicates());
+		assertEquals(List.of("Duplicate deal [D002] ignored."), result.getErrors());
+		verify(dealRollupRepository).add(argThat(deals ->
+				deals.dealIds().equals(List.of("D001", "D003"))));
+	}
+
+	@Test
+	void testCopyLoaderReportsSavedAndDuplicates() throws IOException {
+		String csvContent = """
+            dealId,fromCurrency,toCurrency,timestamp,amount
+            D001,USD,EUR,2025-05-31T10:15:30,1000.50
+            D002,GBP,USD,2025-05-30T14:00:00,2500.75
+            D001,EUR,JPY,2025-05-29T09:45:00,50000
+            D003,EUR,JPY,2025-05-29T09:45:00,50000
+            """;
+		MockMultipartFile file = new MockMultipartFile("file", "copy.csv", "text/csv", csvContent.getBytes());
+
+		// D003 is already stored, so the merge skips it.
+		when(dealCopyRepository.copyIgnoringDuplicates(any(DealColumns.class))).thenReturn(Set.of("D001", "D002"));
+
+		ResultsDto result = dealService.importCsv(file, ImportLoader.COPY);
+
+		assertEquals(2, result.getSaved());
+		assertEquals(2, result.getDuplicates());
+		verify(dealCopyRepository).copyIgnoringDuplicates(argThat(deals ->
+				deals.dealIds().equals(List.of("D001", "D002", "D003"))));
+		verify(dealBatchRepository, never()).insertIgnoringDuplicates(any());
+		verify(dealRollupRepository).add(argThat(deals -> deals.dealIds().equals(List.of("D001", "D002"))));
+	}
+
+	@Test
+	void testErrorDetailsAreCappedButCounted() throws IOException {
+		String csvContent = """
+            dealId,fromCurrency,toCurrency,timestamp,amount
+            D001,USD,ZZZ,2025-05-31T10:15:30,1000.50
+            D002,USD,EUR,2025-05-30T14:00:00,-1
+            D003,ZZZ,USD,2025-05-29T09:45:00,50000
+            D001,USD,ZZZ,2025-05-31T10:15:30,1000.50
+            D004,USD,EUR,2025-05-28T16:30:00,1300.25
+            """;
+
+		MockMultipartFile file = new MockMultipartFile(
+				"file",
+				"errors.csv",
+				"text/csv",
+				csvContent.getBytes()
+		);
+
+		int maxErrorDetails = importProperties.getMaxErrorDetails();
+		importProperties.setMaxErrorDetails(2);
+		try {
+			ResultsDto result = dealService.importCsv(file);
+
+			assertEquals(1, result.getSaved());
+			assertEquals(3, result.getInvalid());
+			assertEquals(1, result.getDuplicates());
+			assertEquals(List.of(
+					"Invalid deal [D001]: " + messageResolver.get("error.tocurrency.invalid"),
+					"Invalid deal [D002]: " + messageResolver.get("error.amount.invalid")), result.getErrors());
+			assertTrue(result.isErrorsTruncated());
+			assertEquals(1L, result.getErrorCounts().get("TO_CURRENCY_INVALID"));
+			assertEquals(1L, result.getErrorCounts().get("FROM_CURRENCY_INVALID"));
+			assertEquals(1L, result.getErrorCounts().get("AMOUNT_INVALID"));
+			assertEquals(1L, result.getErrorCounts().get("DUPLICATE_IN_FILE"));
+		} finally {
+			importProperties.setMaxErrorDetails(maxErrorDetails);
+		}
+	}
+
+	@Test
+	void testImportRecordsRowOutcomeMetrics() throws IOException {
+		String csvContent = """
+            dealId,fromCurrency,toCurrency,timestamp,amount
+            M001,USD,EUR,2025-05-31T10:15:30,1000.50
+            M002,USD,ZZZ,2025-05-30T14:00:00,2500.75
+            M001,USD,EUR,2025-05-31T10:15:30,1000.50
+            """;
+
+		MockMultipartFile file = new MockMultipartFile(
+				"file",
+				"metrics.csv",
+				"text/csv",
+				csvContent.getBytes()
+		);
+
+		double saved = rowCount("saved");
+		double invalid = rowCount("invalid");
+		double duplicate = rowCount("duplicate");
+
+		dealService.importCsv(file);
+
+		assertEquals(1, rowCount("saved") - saved);
+		assertEquals(1, rowCount("invalid") - invalid);
+		assertEquals(1, rowCount("duplicate") - duplicate);
+		assertTrue(meterRegistry.get("deals.import.stage").tags("job", "sync", "stage", "persist").timer().count() > 0);
+	}
+
+	private double rowCount(String outcome) {
+		var counter = meterRegistry.find("deals.import.rows").tags("job", "sync", "outcome", outcome).counter();
+		return counter == null ? 0 : counter.count();
 	}
 }